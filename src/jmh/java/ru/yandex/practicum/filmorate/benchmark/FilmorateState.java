@@ -0,0 +1,163 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Seeds an in-memory H2 database with synthetic films, users, likes and friendships and then starts
+ * the application on top of it, so the in-memory indexes are built from the seeded data exactly as
+ * they are on a real startup.
+ */
+@State(Scope.Benchmark)
+public class FilmorateState {
+    private static final String[] WORDS = {"star", "night", "river", "ghost", "iron", "summer", "shadow", "king",
+        "planet", "winter", "secret", "garden", "storm", "queen", "dream", "city", "ocean", "fire", "silent", "road"};
+
+    @Param({"10000"})
+    public int films;
+
+    @Param({"5000"})
+    public int users;
+
+    @Param({"20"})
+    public int likesPerUser;
+
+    @Param({"50"})
+    public int friendsPerUser;
+
+    @Param({"100"})
+    public int directors;
+
+    @Param({"10000"})
+    public int filmCacheSize;
+
+    @Param({"10"})
+    public int popularCount;
+
+    public FilmStorage filmStorage;
+
+    public UserStorage userStorage;
+
+    public LikeStorage likeStorage;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = "jdbc:h2:mem:filmorate-benchmark;DB_CLOSE_DELAY=-1";
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                .execute(dataSource);
+        seed(new JdbcTemplate(dataSource));
+
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=" + url,
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.sql.init.mode=never",
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "filmorate.cache.films.max-size=" + filmCacheSize)
+                .run();
+        filmStorage = context.getBean(FilmStorage.class);
+        userStorage = context.getBean(UserStorage.class);
+        likeStorage = context.getBean(LikeStorage.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:filmorate-benchmark", "sa", "")).execute("SHUTDOWN");
+    }
+
+    public long randomFilmId() {
+        return ThreadLocalRandom.current().nextLong(1, films + 1);
+    }
+
+    public long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1);
+    }
+
+    public String randomQuery() {
+        String word = WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+        return word.substring(0, Math.min(4, word.length()));
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(42);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= directors; i++) {
+            rows.add(new Object[]{WORDS[random.nextInt(WORDS.length)] + " director " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO directors (name) VALUES (?)", rows);
+
+        rows.clear();
+        for (int i = 1; i <= films; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            LocalDate releaseDate = LocalDate.of(1950 + random.nextInt(75), 1 + random.nextInt(12), 1);
+            rows.add(new Object[]{name, "Synthetic film " + i, Date.valueOf(releaseDate), 60 + random.nextInt(120),
+                1 + random.nextInt(5)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO films (name, description, releaseDate, duration, mpa_id) VALUES (?, ?, ?, ?, ?)", rows);
+
+        rows.clear();
+        List<Object[]> directorRows = new ArrayList<>();
+        for (int i = 1; i <= films; i++) {
+            int firstGenre = 1 + random.nextInt(6);
+            rows.add(new Object[]{i, firstGenre});
+            if (random.nextBoolean()) {
+                rows.add(new Object[]{i, 1 + (firstGenre % 6)});
+            }
+            directorRows.add(new Object[]{i, 1 + random.nextInt(directors)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", rows);
+        jdbcTemplate.batchUpdate("INSERT INTO film_directors (film_id, director_id) VALUES (?, ?)", directorRows);
+
+        rows.clear();
+        for (int i = 1; i <= users; i++) {
+            rows.add(new Object[]{"user" + i + "@mail.ru", "user" + i, "User " + i, Date.valueOf(LocalDate.of(1990, 1, 1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)", rows);
+
+        rows.clear();
+        for (int user = 1; user <= users; user++) {
+            final int userId = user;
+            random.ints(1, films + 1).distinct().limit(Math.min(likesPerUser, films))
+                    .forEach(film -> rows.add(new Object[]{userId, film}));
+            jdbcTemplate.batchUpdate("INSERT INTO likes (user_id, film_id) VALUES (?, ?)", rows);
+            rows.clear();
+        }
+        jdbcTemplate.update("UPDATE films f SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id)");
+
+        for (int user = 1; user <= users; user++) {
+            final int userId = user;
+            random.ints(1, users + 1).filter(friend -> friend != userId).distinct().limit(Math.min(friendsPerUser, users - 1))
+                    .forEach(friend -> rows.add(new Object[]{userId, friend}));
+            jdbcTemplate.batchUpdate("INSERT INTO friends (user_id, friend_id) VALUES (?, ?)", rows);
+            rows.clear();
+        }
+    }
+}
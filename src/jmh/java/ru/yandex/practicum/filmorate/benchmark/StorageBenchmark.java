@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+    private static final List<String> SEARCH_BY = List.of("title", "director");
+
+    @Benchmark
+    public Film getFilmById(FilmorateState state) {
+        return state.filmStorage.getFilmById(state.randomFilmId());
+    }
+
+    @Benchmark
+    public boolean filmExists(FilmorateState state) {
+        return state.filmStorage.exists(state.randomFilmId());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Film> findAll(FilmorateState state) {
+        return state.filmStorage.findAll();
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilms(FilmorateState state) {
+        return state.filmStorage.getPopularFilms(state.popularCount, null, null);
+    }
+
+    @Benchmark
+    public List<Film> getRecommendations(FilmorateState state) {
+        return state.filmStorage.getRecommendations(state.randomUserId());
+    }
+
+    @Benchmark
+    public List<Film> findFilm(FilmorateState state) {
+        return state.filmStorage.findFilm(state.randomQuery(), SEARCH_BY);
+    }
+
+    @Benchmark
+    public List<Long> getCommonFilmIds(FilmorateState state) {
+        return state.likeStorage.getCommonFilmIds(state.randomUserId(), state.randomUserId());
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends(FilmorateState state) {
+        return state.userStorage.getCommonFriends(state.randomUserId(), state.randomUserId());
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.BulkResult;
+import ru.yandex.practicum.filmorate.service.BulkService;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/bulk")
+public class BulkController {
+    private final BulkService bulkService;
+
+    @PostMapping("/films")
+    public BulkResult loadFilms(@RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                InputStream body) throws IOException {
+        return bulkService.loadFilms(body, contentType);
+    }
+
+    @PostMapping("/users")
+    public BulkResult loadUsers(@RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                InputStream body) throws IOException {
+        return bulkService.loadUsers(body, contentType);
+    }
+
+    @PostMapping("/likes")
+    public BulkResult loadLikes(@RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                InputStream body) throws IOException {
+        return bulkService.loadLikes(body, contentType);
+    }
+
+    @PostMapping("/friends")
+    public BulkResult loadFriends(@RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                  InputStream body) throws IOException {
+        return bulkService.loadFriends(body, contentType);
+    }
+}
@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,11 +13,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.executor.EndpointExecutors;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -24,9 +29,22 @@ import java.util.List;
 public class FilmController {
     private final FilmService filmService;
 
+    private final EndpointExecutors endpointExecutors;
+
     @GetMapping
-    public List<Film> findAll() {
-        return filmService.findAll();
+    public ResponseEntity<List<Film>> findAll(@RequestParam(required = false) String after,
+                                              @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(filmService.findAll());
+        }
+        return CursorPages.toResponse(filmService.findPage(after, limit));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(filmService::exportAll);
     }
 
     @PostMapping
@@ -40,8 +58,16 @@ public class FilmController {
     }
 
     @GetMapping("/{id}")
-    public Film getFilmById(@PathVariable(value = "id") Long filmId) {
-        return filmService.getFilmById(filmId);
+    public ResponseEntity<String> getFilmById(@PathVariable(value = "id") Long filmId, WebRequest request) {
+        // checkNotModified also sets the ETag header. The tag is read before the document, so a concurrent write
+        // can only leave the client with a tag older than its body, never a stale body under the new tag.
+        String eTag = filmService.getFilmTag(filmId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(filmService.getFilmJson(filmId));
     }
 
     @PutMapping("{id}/like/{userId}")
@@ -61,23 +87,31 @@ public class FilmController {
     }
 
     @GetMapping("/popular")
-    public List<Film> getPopularFilm(
+    public ResponseEntity<String> getPopularFilm(
             @RequestParam(required = false, defaultValue = "10") Integer count,
             @RequestParam(required = false) Long genreId,
-            @RequestParam(required = false) Integer year) {
-        return filmService.getPopularFilms(count, genreId, year);
+            @RequestParam(required = false) Integer year,
+            WebRequest request) {
+        String eTag = filmService.getPopularFilmsTag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(filmService.getPopularFilmsJson(count, genreId, year));
     }
 
     @GetMapping("/common")
-    public List<Film> getCommonFilms(@RequestParam(value = "userId") Long userId,
-                                     @RequestParam(value = "friendId") Long friendId) {
-        return filmService.getCommonFilms(userId, friendId);
+    public CompletableFuture<List<Film>> getCommonFilms(@RequestParam(value = "userId") Long userId,
+                                                        @RequestParam(value = "friendId") Long friendId) {
+        return endpointExecutors.submit("common-films", () -> filmService.getCommonFilms(userId, friendId));
     }
 
     @GetMapping("/director/{directorId}")
-    public List<Film> getDirectorFilmsSorted(@PathVariable(value = "directorId") Long directorId,
-                                             @RequestParam(value = "sortBy") String sortType) {
-        return filmService.getDirectorFilmsSorted(directorId, sortType);
+    public CompletableFuture<List<Film>> getDirectorFilmsSorted(@PathVariable(value = "directorId") Long directorId,
+                                                                @RequestParam(value = "sortBy") String sortType) {
+        return endpointExecutors.submit("director-films",
+                () -> filmService.getDirectorFilmsSorted(directorId, sortType));
     }
 
 
@@ -89,8 +123,8 @@ public class FilmController {
     }
 
     @GetMapping("/search")
-    public List<Film> findFilms(@RequestParam("query") String findingSubstring,
-                                @RequestParam("by") List<String> parameters) {
-        return filmService.findFilms(findingSubstring, parameters);
+    public CompletableFuture<List<Film>> findFilms(@RequestParam("query") String findingSubstring,
+                                                   @RequestParam("by") List<String> parameters) {
+        return endpointExecutors.submit("search", () -> filmService.findFilms(findingSubstring, parameters));
     }
 }
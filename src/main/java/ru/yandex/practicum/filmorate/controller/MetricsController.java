@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.CacheStats;
+import ru.yandex.practicum.filmorate.model.ExecutorStats;
+import ru.yandex.practicum.filmorate.model.StorageMethodStats;
+import ru.yandex.practicum.filmorate.service.MetricsService;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/internal/metrics")
+public class MetricsController {
+    private final MetricsService metricsService;
+
+    @GetMapping("/caches")
+    public List<CacheStats> getCacheStats() {
+        return metricsService.getCacheStats();
+    }
+
+    @GetMapping("/storage")
+    public List<StorageMethodStats> getStorageStats() {
+        return metricsService.getStorageStats();
+    }
+
+    @GetMapping("/executors")
+    public List<ExecutorStats> getExecutorStats() {
+        return metricsService.getExecutorStats();
+    }
+}
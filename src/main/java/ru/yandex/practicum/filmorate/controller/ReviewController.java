@@ -4,11 +4,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.executor.EndpointExecutors;
 import ru.yandex.practicum.filmorate.model.Review;
 import ru.yandex.practicum.filmorate.service.ReviewService;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -16,6 +18,8 @@ import java.util.List;
 public class ReviewController {
     private final ReviewService reviewService;
 
+    private final EndpointExecutors endpointExecutors;
+
     @PostMapping
     public Review create(@RequestBody @Valid Review review) {
         return reviewService.create(review);
@@ -39,10 +43,17 @@ public class ReviewController {
     }
 
     @GetMapping
-    public List<Review> getReviewsByFilmId(
+    public CompletableFuture<ResponseEntity<List<Review>>> getReviewsByFilmId(
             @RequestParam(required = false) Long filmId,
-            @RequestParam(required = false, defaultValue = "10") Integer count) {
-        return reviewService.getReviewsByFilmId(filmId, count);
+            @RequestParam(required = false, defaultValue = "10") Integer count,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return endpointExecutors.submit("reviews", () -> {
+            if (after == null && limit == null) {
+                return ResponseEntity.ok(reviewService.getReviewsByFilmId(filmId, count));
+            }
+            return CursorPages.toResponse(reviewService.getReviewsPage(filmId, after, limit));
+        });
     }
 
     @PutMapping("/{id}/like/{userId}")
@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,7 +11,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.executor.EndpointExecutors;
 import ru.yandex.practicum.filmorate.model.Event;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
@@ -18,6 +23,7 @@ import ru.yandex.practicum.filmorate.service.UserService;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -25,9 +31,22 @@ import java.util.List;
 public class UserController {
     private final UserService userService;
 
+    private final EndpointExecutors endpointExecutors;
+
     @GetMapping
-    public List<User> findAll() {
-        return userService.findAll();
+    public ResponseEntity<List<User>> findAll(@RequestParam(required = false) String after,
+                                              @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(userService.findAll());
+        }
+        return CursorPages.toResponse(userService.findPage(after, limit));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(userService::exportAll);
     }
 
     @PostMapping
@@ -54,6 +73,13 @@ public class UserController {
         return userService.getCommonFriends(id, otherId);
     }
 
+    @GetMapping("/{id}/friends/suggestions")
+    public CompletableFuture<List<User>> getFriendSuggestions(
+            @PathVariable(value = "id") Long id,
+            @RequestParam(required = false, defaultValue = "10") Integer count) {
+        return endpointExecutors.submit("friend-suggestions", () -> userService.getFriendSuggestions(id, count));
+    }
+
     @PutMapping("/{id}/friends/{friendId}")
     public ResponseEntity<HttpStatus> addFriend(@PathVariable(value = "id") Long id,
                                                 @PathVariable(value = "friendId") Long friendId) {
@@ -63,8 +89,12 @@ public class UserController {
     }
 
     @GetMapping("{id}/friends")
-    public List<User> getFriends(@PathVariable(value = "id") Long id) {
-        return userService.getFriends(id);
+    public ResponseEntity<List<User>> getFriends(@PathVariable(value = "id") Long id, WebRequest request) {
+        String eTag = userService.getFriendsTag(id);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok(userService.getFriends(id));
     }
 
     @DeleteMapping("/{id}/friends/{friendId}")
@@ -75,8 +105,8 @@ public class UserController {
     }
 
     @GetMapping("/{id}/recommendations")
-    public List<Film> getRecommendations(@PathVariable(value = "id") Long id) {
-        return userService.getRecommendations(id);
+    public CompletableFuture<List<Film>> getRecommendations(@PathVariable(value = "id") Long id) {
+        return endpointExecutors.submit("recommendations", () -> userService.getRecommendations(id));
     }
 
     @DeleteMapping("/{userId}")
@@ -87,7 +117,13 @@ public class UserController {
     }
 
     @GetMapping("/{id}/feed")
-    public List<Event> getFeedByUserId(@PathVariable("id") Long id) {
-        return userService.getFeedByUserId(id);
+    public ResponseEntity<List<Event>> getFeedByUserId(@PathVariable("id") Long id,
+                                                       @RequestParam(required = false) String since,
+                                                       @RequestParam(required = false) String before,
+                                                       @RequestParam(required = false) Integer limit) {
+        if (since == null && before == null && limit == null) {
+            return ResponseEntity.ok(userService.getFeedByUserId(id));
+        }
+        return CursorPages.toResponse(userService.getFeedPage(id, since, before, limit));
     }
 }
@@ -0,0 +1,148 @@
+package ru.yandex.practicum.filmorate.executor;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
+import ru.yandex.practicum.filmorate.model.ExecutorStats;
+
+import javax.annotation.PreDestroy;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * One bounded pool per heavy endpoint, so a burst of slow requests of one kind queues up on its own pool instead
+ * of holding Tomcat workers that cheap lookups need. Pools are sized by {@code filmorate.async.<endpoint>.threads},
+ * {@code .queue-capacity} and {@code .timeout-ms}, falling back to {@code filmorate.async.default.*}.
+ * A full queue fails the request immediately and a timeout fails it while the task may still be running;
+ * both are reported as {@link ServiceUnavailableException}. A task whose request timed out while it was still
+ * queued is skipped.
+ */
+@Component
+public class EndpointExecutors {
+    private static final String PREFIX = "filmorate.async.";
+
+    private final Environment environment;
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            daemonThreads("endpoint-timeouts"));
+
+    public EndpointExecutors(Environment environment) {
+        this.environment = environment;
+    }
+
+    public <T> CompletableFuture<T> submit(String endpoint, Supplier<T> task) {
+        Pool pool = pools.computeIfAbsent(endpoint, this::createPool);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            pool.executor.execute(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(task.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pool.rejected.increment();
+            throw new ServiceUnavailableException(
+                    String.format("Слишком много запросов к %s, повторите позже", endpoint));
+        }
+
+        ScheduledFuture<?> timeout = timer.schedule(() -> {
+            if (result.completeExceptionally(new ServiceUnavailableException(
+                    String.format("Запрос к %s не выполнен за %s мс", endpoint, pool.timeoutMs)))) {
+                pool.timeouts.increment();
+            }
+        }, pool.timeoutMs, TimeUnit.MILLISECONDS);
+        result.whenComplete((value, e) -> timeout.cancel(false));
+        return result;
+    }
+
+    public List<ExecutorStats> getStats() {
+        return pools.values().stream()
+                .map(Pool::getStats)
+                .sorted(Comparator.comparing(ExecutorStats::getName))
+                .collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+        pools.values().forEach(pool -> pool.executor.shutdownNow());
+    }
+
+    private Pool createPool(String endpoint) {
+        int threads = property(endpoint, "threads", 4);
+        int queueCapacity = property(endpoint, "queue-capacity", 100);
+        long timeoutMs = property(endpoint, "timeout-ms", 5000);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), daemonThreads(endpoint),
+                new ThreadPoolExecutor.AbortPolicy());
+        return new Pool(endpoint, executor, queueCapacity, timeoutMs);
+    }
+
+    private int property(String endpoint, String key, int defaultValue) {
+        Integer value = environment.getProperty(PREFIX + endpoint + "." + key, Integer.class);
+        if (value == null) {
+            value = environment.getProperty(PREFIX + "default." + key, Integer.class, defaultValue);
+        }
+        return value;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Pool {
+        private final String name;
+        private final ThreadPoolExecutor executor;
+        private final int queueCapacity;
+        private final long timeoutMs;
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        private Pool(String name, ThreadPoolExecutor executor, int queueCapacity, long timeoutMs) {
+            this.name = name;
+            this.executor = executor;
+            this.queueCapacity = queueCapacity;
+            this.timeoutMs = timeoutMs;
+        }
+
+        private ExecutorStats getStats() {
+            return ExecutorStats.builder()
+                    .name(name)
+                    .threads(executor.getMaximumPoolSize())
+                    .active(executor.getActiveCount())
+                    .queued(executor.getQueue().size())
+                    .queueCapacity(queueCapacity)
+                    .completed(executor.getCompletedTaskCount())
+                    .rejected(rejected.sum())
+                    .timeouts(timeouts.sum())
+                    .build();
+        }
+    }
+}
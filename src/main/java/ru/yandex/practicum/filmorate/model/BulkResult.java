@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BulkResult {
+    private final long received;
+    private final long inserted;
+    private final long skipped;
+    private final long failed;
+    private final List<BulkError> errors;
+}
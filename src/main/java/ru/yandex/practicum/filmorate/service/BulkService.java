@@ -0,0 +1,289 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
+import ru.yandex.practicum.filmorate.exception.InvalidRequestException;
+import ru.yandex.practicum.filmorate.model.BulkError;
+import ru.yandex.practicum.filmorate.model.BulkResult;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.BulkStorage;
+import ru.yandex.practicum.filmorate.storage.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.MpaStorage;
+import ru.yandex.practicum.filmorate.util.CsvLine;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Streams NDJSON or CSV input line by line and hands valid rows to {@link BulkStorage} in fixed-size chunks,
+ * so memory stays bounded by the chunk size whatever the size of the upload.
+ */
+@Service
+public class BulkService {
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final BulkStorage bulkStorage;
+
+    private final MpaStorage mpaStorage;
+
+    private final GenreStorage genreStorage;
+
+    private final DirectorStorage directorStorage;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final int chunkSize;
+
+    public BulkService(BulkStorage bulkStorage,
+                       MpaStorage mpaStorage,
+                       GenreStorage genreStorage,
+                       DirectorStorage directorStorage,
+                       ObjectMapper objectMapper,
+                       Validator validator,
+                       @Value("${filmorate.bulk.chunk-size:1000}") int chunkSize) {
+        this.bulkStorage = bulkStorage;
+        this.mpaStorage = mpaStorage;
+        this.genreStorage = genreStorage;
+        this.directorStorage = directorStorage;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public BulkResult loadFilms(InputStream in, String contentType) throws IOException {
+        return load(in, contentType, Film.class, this::validateFilm, films -> {
+            int[] counts = new int[films.size()];
+            Arrays.fill(counts, 1);
+            bulkStorage.insertFilms(films);
+            return counts;
+        });
+    }
+
+    public BulkResult loadUsers(InputStream in, String contentType) throws IOException {
+        return load(in, contentType, User.class, this::validateUser, bulkStorage::insertUsers);
+    }
+
+    public BulkResult loadLikes(InputStream in, String contentType) throws IOException {
+        return load(in, contentType, Like.class, like -> like.getFilmId() == null || like.getUserId() == null
+                ? "Не указан id фильма или пользователя" : null, bulkStorage::insertLikes);
+    }
+
+    public BulkResult loadFriends(InputStream in, String contentType) throws IOException {
+        return load(in, contentType, Friendship.class, friendship -> friendship.getUserId() == null
+                || friendship.getFriendId() == null ? "Не указан id пользователя или друга" : null,
+                bulkStorage::insertFriends);
+    }
+
+    private <T> BulkResult load(InputStream in, String contentType, Class<T> type,
+                                Function<T, String> check, Function<List<T>, int[]> writer) throws IOException {
+        boolean csv = isCsv(contentType);
+        ObjectReader reader = objectMapper.readerFor(type);
+        Summary summary = new Summary();
+        List<T> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        List<String> header = null;
+
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (csv && header == null) {
+                    header = CsvLine.parse(line);
+                    continue;
+                }
+                summary.received++;
+
+                T row;
+                try {
+                    row = csv ? reader.readValue(toNode(header, CsvLine.parse(line))) : reader.readValue(line);
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    summary.fail(lineNumber, "Строка не разобрана: " + e.getMessage());
+                    continue;
+                }
+                String error = check.apply(row);
+                if (error != null) {
+                    summary.fail(lineNumber, error);
+                    continue;
+                }
+
+                chunk.add(row);
+                chunkLines.add(lineNumber);
+                if (chunk.size() == chunkSize) {
+                    flush(chunk, chunkLines, writer, summary);
+                }
+            }
+        }
+        flush(chunk, chunkLines, writer, summary);
+        return summary.toResult();
+    }
+
+    private <T> void flush(List<T> chunk, List<Long> chunkLines, Function<List<T>, int[]> writer, Summary summary) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            for (int count : writer.apply(chunk)) {
+                if (count > 0) {
+                    summary.inserted++;
+                } else {
+                    summary.skipped++;
+                }
+            }
+        } catch (DataAccessException e) {
+            String message = "Пакет не записан: " + e.getMostSpecificCause().getMessage();
+            chunkLines.forEach(line -> summary.fail(line, message));
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private ObjectNode toNode(List<String> header, List<String> values) {
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("Полей больше, чем колонок в заголовке");
+        }
+        ObjectNode node = objectMapper.createObjectNode();
+        for (int i = 0; i < values.size(); i++) {
+            String column = header.get(i);
+            String value = values.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            if (column.equals("mpa")) {
+                node.putObject("mpa").put("id", value);
+            } else if (column.equals("genres") || column.equals("directors")) {
+                ArrayNode ids = node.putArray(column);
+                for (String id : value.split("\\|")) {
+                    ids.addObject().put("id", id.trim());
+                }
+            } else {
+                node.put(column, value);
+            }
+        }
+        return node;
+    }
+
+    private String validateFilm(Film film) {
+        String error = violation(film);
+        if (error != null) {
+            return error;
+        }
+        if (film.getReleaseDate() == null) {
+            return "Не указана дата релиза";
+        }
+        if (film.getMpa() == null || film.getMpa().getId() == null) {
+            return "Не указан рейтинг MPA";
+        }
+        try {
+            mpaStorage.getById(film.getMpa().getId());
+            if (film.getGenres() != null) {
+                for (Genre genre : film.getGenres()) {
+                    if (genre.getId() == null) {
+                        return "Не указан id жанра";
+                    }
+                    genreStorage.getById(genre.getId());
+                }
+            }
+            if (film.getDirectors() != null) {
+                for (Director director : film.getDirectors()) {
+                    if (director.getId() == null) {
+                        return "Не указан id режиссёра";
+                    }
+                    directorStorage.getById(director.getId());
+                }
+            }
+        } catch (EntityNotFoundException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private String validateUser(User user) {
+        String error = violation(user);
+        if (error != null) {
+            return error;
+        }
+        if (user.getEmail() == null || user.getEmail().isBlank()) {
+            return "Почта не может быть пустой";
+        }
+        if (user.getBirthday() == null) {
+            return "Не указана дата рождения";
+        }
+        if (user.getName() == null || user.getName().isBlank()) {
+            user.setName(user.getLogin());
+        }
+        return null;
+    }
+
+    private <T> String violation(T row) {
+        Set<ConstraintViolation<T>> violations = validator.validate(row);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private static boolean isCsv(String contentType) {
+        String type = contentType == null ? "" : contentType.toLowerCase();
+        if (type.startsWith("text/csv")) {
+            return true;
+        }
+        if (type.startsWith("application/x-ndjson") || type.startsWith("application/json")) {
+            return false;
+        }
+        throw new InvalidRequestException(String.format("Неподдерживаемый формат загрузки: %s", contentType));
+    }
+
+    private static final class Summary {
+        private long received;
+        private long inserted;
+        private long skipped;
+        private long failed;
+        private final List<BulkError> errors = new ArrayList<>();
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(BulkError.builder()
+                        .line(line)
+                        .message(message)
+                        .build());
+            }
+        }
+
+        private BulkResult toResult() {
+            return BulkResult.builder()
+                    .received(received)
+                    .inserted(inserted)
+                    .skipped(skipped)
+                    .failed(failed)
+                    .errors(errors)
+                    .build();
+        }
+    }
+}
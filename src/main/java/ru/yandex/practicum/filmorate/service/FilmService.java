@@ -1,13 +1,26 @@
 package ru.yandex.practicum.filmorate.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
+import ru.yandex.practicum.filmorate.model.CursorPage;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.FilmViewStorage;
 import ru.yandex.practicum.filmorate.storage.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.util.Cursor;
+import ru.yandex.practicum.filmorate.util.JsonArrayWriter;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 public class FilmService {
@@ -17,18 +30,48 @@ public class FilmService {
 
     private final LikeStorage likeStorage;
 
+    private final FilmViewStorage filmViewStorage;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityVersions entityVersions;
+
     public FilmService(FilmStorage filmStorage,
                        UserStorage userStorage,
-                       LikeStorage likeStorage) {
+                       LikeStorage likeStorage,
+                       FilmViewStorage filmViewStorage,
+                       ObjectMapper objectMapper,
+                       EntityVersions entityVersions) {
         this.filmStorage = filmStorage;
         this.userStorage = userStorage;
         this.likeStorage = likeStorage;
+        this.filmViewStorage = filmViewStorage;
+        this.objectMapper = objectMapper;
+        this.entityVersions = entityVersions;
     }
 
     public List<Film> findAll() {
         return filmStorage.findAll();
     }
 
+    public void exportAll(OutputStream out) throws IOException {
+        JsonArrayWriter.write(objectMapper, out, filmStorage::streamAll);
+    }
+
+    public CursorPage<Film> findPage(String after, Integer limit) {
+        long afterId = after == null ? 0 : Cursor.decode(after, 1)[0];
+        int pageSize = Cursor.pageSize(limit);
+
+        // The cursor follows the scanned ids: a film deleted before hydration leaves a short page, not the end.
+        List<Long> ids = filmStorage.findPageIds(afterId, pageSize);
+        List<Film> films = filmStorage.getFilmsByIds(ids);
+        String nextCursor = ids.size() < pageSize ? null : Cursor.encode(ids.get(ids.size() - 1));
+        return CursorPage.<Film>builder()
+                .items(films)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     public Film create(Film film) {
         return filmStorage.create(film);
     }
@@ -37,8 +80,24 @@ public class FilmService {
         return filmStorage.update(film);
     }
 
-    public Film getFilmById(Long filmId) {
-        return filmStorage.getFilmById(filmId);
+    public String getFilmJson(Long filmId) {
+        List<String> documents = getFilmDocuments(List.of(filmId));
+        if (documents.isEmpty()) {
+            throw new EntityNotFoundException(String.format("Фильм c id %s отсутствует", filmId));
+        }
+        return documents.get(0);
+    }
+
+    public String getFilmTag(Long filmId) {
+        return entityVersions.filmTag(filmId);
+    }
+
+    public String getPopularFilmsTag() {
+        return entityVersions.popularTag();
+    }
+
+    public String getPopularFilmsJson(Integer count, Long genreId, Integer year) {
+        return "[" + String.join(",", getFilmDocuments(likeStorage.getPopularFilms(count, genreId, year))) + "]";
     }
 
     public void addLike(Long filmId, Long userId) {
@@ -49,20 +108,11 @@ public class FilmService {
         filmStorage.removeLike(filmId, userId);
     }
 
-    public List<Film> getPopularFilms(Integer count, Long genreId, Integer year) {
-        return filmStorage.getPopularFilms(count, genreId, year);
-    }
-
     public List<Film> getCommonFilms(Long userId, Long friendId) {
-        userStorage.getUserById(userId);
-        userStorage.getUserById(friendId);
+        userStorage.checkExists(userId);
+        userStorage.checkExists(friendId);
 
-        List<Film> commonFilms = new ArrayList<>();
-        List<Long> sdfds = likeStorage.getCommonFilmIds(userId, friendId);
-        for (Long id : sdfds) {
-            commonFilms.add(filmStorage.getFilmById(id));
-        }
-        return commonFilms;
+        return filmStorage.getFilmsByIds(likeStorage.getCommonFilmIds(userId, friendId));
     }
 
     public List<Film> getDirectorFilmsSorted(Long directorId, String sortType) {
@@ -84,4 +134,21 @@ public class FilmService {
     public List<Film> findFilms(String findingSubstring, List<String> parameters) {
         return filmStorage.findFilm(findingSubstring, parameters);
     }
+
+    private List<String> getFilmDocuments(List<Long> ids) {
+        Map<Long, String> documents = new HashMap<>(filmViewStorage.getDocuments(ids));
+        List<Long> missing = ids.stream()
+                .filter(id -> !documents.containsKey(id))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            long stamp = filmViewStorage.stamp();
+            for (Film film : filmStorage.getFilmsByIds(missing)) {
+                documents.put(film.getId(), filmViewStorage.fill(film, stamp));
+            }
+        }
+        return ids.stream()
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.executor.EndpointExecutors;
+import ru.yandex.practicum.filmorate.model.CacheStats;
+import ru.yandex.practicum.filmorate.model.ExecutorStats;
+import ru.yandex.practicum.filmorate.model.StorageMethodStats;
+import ru.yandex.practicum.filmorate.storage.cache.FilmCache;
+import ru.yandex.practicum.filmorate.storage.cache.ReviewTopCache;
+import ru.yandex.practicum.filmorate.storage.metrics.StorageMetrics;
+
+import java.util.List;
+
+@Service
+public class MetricsService {
+    private final FilmCache filmCache;
+
+    private final ReviewTopCache reviewTopCache;
+
+    private final StorageMetrics storageMetrics;
+
+    private final EndpointExecutors endpointExecutors;
+
+    public MetricsService(FilmCache filmCache,
+                          ReviewTopCache reviewTopCache,
+                          StorageMetrics storageMetrics,
+                          EndpointExecutors endpointExecutors) {
+        this.filmCache = filmCache;
+        this.reviewTopCache = reviewTopCache;
+        this.storageMetrics = storageMetrics;
+        this.endpointExecutors = endpointExecutors;
+    }
+
+    public List<CacheStats> getCacheStats() {
+        return List.of(filmCache.getStats(), reviewTopCache.getStats());
+    }
+
+    public List<StorageMethodStats> getStorageStats() {
+        return storageMetrics.getStats();
+    }
+
+    public List<ExecutorStats> getExecutorStats() {
+        return endpointExecutors.getStats();
+    }
+}
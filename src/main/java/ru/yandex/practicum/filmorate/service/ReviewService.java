@@ -1,8 +1,11 @@
 package ru.yandex.practicum.filmorate.service;
 
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.InvalidRequestException;
+import ru.yandex.practicum.filmorate.model.CursorPage;
 import ru.yandex.practicum.filmorate.model.Review;
 import ru.yandex.practicum.filmorate.storage.ReviewStorage;
+import ru.yandex.practicum.filmorate.util.Cursor;
 
 import java.util.List;
 
@@ -32,9 +35,38 @@ public class ReviewService {
     }
 
     public List<Review> getReviewsByFilmId(Long id, Integer count) {
+        if (count < 1) {
+            throw new InvalidRequestException("Количество отзывов должно быть положительным");
+        }
+
         return reviewStorage.getReviewsByFilmId(id, count);
     }
 
+    public CursorPage<Review> getReviewsPage(Long filmId, String after, Integer limit) {
+        Integer afterUseful = null;
+        Long afterId = null;
+        if (after != null) {
+            long[] keys = Cursor.decode(after, 2);
+            if (keys[0] < Integer.MIN_VALUE || keys[0] > Integer.MAX_VALUE) {
+                throw new InvalidRequestException(String.format("Некорректный курсор %s", after));
+            }
+            afterUseful = (int) keys[0];
+            afterId = keys[1];
+        }
+        int pageSize = Cursor.pageSize(limit);
+
+        List<Review> reviews = reviewStorage.getReviewsPage(filmId, afterUseful, afterId, pageSize);
+        String nextCursor = null;
+        if (reviews.size() == pageSize) {
+            Review last = reviews.get(reviews.size() - 1);
+            nextCursor = Cursor.encode(last.getUseful(), last.getReviewId());
+        }
+        return CursorPage.<Review>builder()
+                .items(reviews)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     public void addLike(Long id, Long userId) {
         reviewStorage.addLike(id, userId);
     }
@@ -1,13 +1,21 @@
 package ru.yandex.practicum.filmorate.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.InvalidRequestException;
+import ru.yandex.practicum.filmorate.model.CursorPage;
 import ru.yandex.practicum.filmorate.model.Event;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.EventStorage;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.util.Cursor;
+import ru.yandex.practicum.filmorate.util.JsonArrayWriter;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 @Service
@@ -17,18 +25,42 @@ public class UserService {
 
     private final EventStorage eventStorage;
 
+    private final ObjectMapper objectMapper;
+
+    private final EntityVersions entityVersions;
+
     public UserService(UserStorage userStorage,
                        FilmStorage filmStorage,
-                       EventStorage eventStorage) {
+                       EventStorage eventStorage,
+                       ObjectMapper objectMapper,
+                       EntityVersions entityVersions) {
         this.userStorage = userStorage;
         this.filmStorage = filmStorage;
         this.eventStorage = eventStorage;
+        this.objectMapper = objectMapper;
+        this.entityVersions = entityVersions;
     }
 
     public List<User> findAll() {
         return userStorage.findAll();
     }
 
+    public void exportAll(OutputStream out) throws IOException {
+        JsonArrayWriter.write(objectMapper, out, userStorage::streamAll);
+    }
+
+    public CursorPage<User> findPage(String after, Integer limit) {
+        long afterId = after == null ? 0 : Cursor.decode(after, 1)[0];
+        int pageSize = Cursor.pageSize(limit);
+
+        List<User> users = userStorage.findPage(afterId, pageSize);
+        String nextCursor = users.size() < pageSize ? null : Cursor.encode(users.get(users.size() - 1).getId());
+        return CursorPage.<User>builder()
+                .items(users)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     public User getUserById(Long id) {
         return userStorage.getUserById(id);
     }
@@ -38,38 +70,51 @@ public class UserService {
     }
 
     public User update(User user) {
-        userStorage.getUserById(user.getId());
+        userStorage.checkExists(user.getId());
 
         return userStorage.update(user);
     }
 
     public List<User> getFriends(Long id) {
-        userStorage.getUserById(id);
+        userStorage.checkExists(id);
 
         return userStorage.getFriends(id);
     }
 
+    public String getFriendsTag(Long id) {
+        return entityVersions.friendsTag(id);
+    }
+
     public void addFriend(Long id, Long friendId) {
-        userStorage.getUserById(id);
-        userStorage.getUserById(friendId);
+        userStorage.checkExists(id);
+        userStorage.checkExists(friendId);
 
         userStorage.addFriend(id, friendId);
     }
 
     public void removeFriend(Long id, Long friendId) {
-        userStorage.getUserById(id);
-        userStorage.getUserById(friendId);
+        userStorage.checkExists(id);
+        userStorage.checkExists(friendId);
 
         userStorage.removeFriend(id, friendId);
     }
 
     public List<User> getCommonFriends(Long id, Long otherId) {
-        userStorage.getUserById(id);
-        userStorage.getUserById(otherId);
+        userStorage.checkExists(id);
+        userStorage.checkExists(otherId);
 
         return userStorage.getCommonFriends(id, otherId);
     }
 
+    public List<User> getFriendSuggestions(Long id, Integer count) {
+        userStorage.checkExists(id);
+        if (count < 1) {
+            throw new InvalidRequestException("Количество рекомендаций должно быть положительным");
+        }
+
+        return userStorage.getFriendSuggestions(id, count);
+    }
+
     public List<Film> getRecommendations(Long id) {
         return filmStorage.getRecommendations(id);
     }
@@ -79,8 +124,30 @@ public class UserService {
     }
 
     public List<Event> getFeedByUserId(Long id) {
-        userStorage.getUserById(id);
+        userStorage.checkExists(id);
 
         return eventStorage.getFeedByUserId(id);
     }
+
+    public CursorPage<Event> getFeedPage(Long id, String since, String before, Integer limit) {
+        userStorage.checkExists(id);
+        long[] sinceKey = since == null ? null : Cursor.decode(since, 2);
+        long[] beforeKey = before == null ? null : Cursor.decode(before, 2);
+        int pageSize = Cursor.pageSize(limit);
+
+        List<Event> events = eventStorage.getFeedPage(id,
+                sinceKey == null ? null : sinceKey[0], sinceKey == null ? null : sinceKey[1],
+                beforeKey == null ? null : beforeKey[0], beforeKey == null ? null : beforeKey[1],
+                pageSize);
+        String nextCursor = null;
+        if (events.size() == pageSize) {
+            // Paging back from "before" continues from the oldest event of the page, otherwise from the newest.
+            Event last = since == null && before != null ? events.get(0) : events.get(events.size() - 1);
+            nextCursor = Cursor.encode(last.getTimestamp(), last.getEventId());
+        }
+        return CursorPage.<Event>builder()
+                .items(events)
+                .nextCursor(nextCursor)
+                .build();
+    }
 }
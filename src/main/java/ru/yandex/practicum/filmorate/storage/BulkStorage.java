@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+
+public interface BulkStorage {
+    List<Long> insertFilms(List<Film> films);
+
+    int[] insertUsers(List<User> users);
+
+    int[] insertLikes(List<Like> likes);
+
+    int[] insertFriends(List<Friendship> friendships);
+}
@@ -9,5 +9,9 @@ import java.util.List;
 public interface EventStorage {
     List<Event> getFeedByUserId(Long id);
 
+    List<Event> getFeedPage(Long userId, Long sinceTime, Long sinceId, Long beforeTime, Long beforeId, int limit);
+
     void addEvent(Long userId, Long entityId, EventType eventType, Operation operation);
+
+    void flush();
 }
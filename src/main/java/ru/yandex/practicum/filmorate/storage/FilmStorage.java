@@ -1,19 +1,35 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
 
     List<Film> findAll();
 
+    void streamAll(Consumer<Film> consumer);
+
+    List<Long> findPageIds(Long afterId, int limit);
+
     Film create(Film film);
 
     Film update(Film film);
 
     Film getFilmById(Long id);
 
+    List<Film> getFilmsByIds(List<Long> ids);
+
+    boolean exists(Long id);
+
+    default void checkExists(Long id) {
+        if (!exists(id)) {
+            throw new EntityNotFoundException(String.format("Фильм c id %s отсутствует", id));
+        }
+    }
+
     void addLike(Long filmId, Long userId);
 
     void removeLike(Long filmId, Long userId);
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+import java.util.Map;
+
+public interface FilmViewStorage {
+    Map<Long, String> getDocuments(List<Long> ids);
+
+    long stamp();
+
+    String fill(Film film, long stamp);
+
+    void put(Film film);
+
+    void invalidate(List<Long> filmIds);
+}
@@ -7,6 +7,8 @@ public interface LikeStorage {
 
     void removeLike(Long filmId, Long userId);
 
+    void removeUserLikes(Long userId);
+
     List<Long> getPopularFilms(Integer limit, Long genreId, Integer year);
 
     List<Long> getCommonFilmIds(Long userId, Long friendId);
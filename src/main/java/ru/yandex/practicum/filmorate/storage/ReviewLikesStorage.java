@@ -1,12 +1,9 @@
 package ru.yandex.practicum.filmorate.storage;
 
 public interface ReviewLikesStorage {
-    boolean addLike(Long id, Long userId);
+    Boolean getVote(Long id, Long userId);
 
-    void removeLike(Long id, Long userId);
-
-    boolean addDislike(Long id, Long userId);
-
-    void removeDislike(Long id, Long userId);
+    void setVote(Long id, Long userId, boolean isLike);
 
+    void removeVote(Long id, Long userId);
 }
@@ -15,6 +15,8 @@ public interface ReviewStorage {
 
     List<Review> getReviewsByFilmId(Long id, Integer count);
 
+    List<Review> getReviewsPage(Long filmId, Integer afterUseful, Long afterId, int limit);
+
     void addLike(Long id, Long userId);
 
     void addDislike(Long id, Long userId);
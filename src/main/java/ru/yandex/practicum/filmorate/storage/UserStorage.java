@@ -1,19 +1,35 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserStorage {
 
     List<User> findAll();
 
+    void streamAll(Consumer<User> consumer);
+
+    List<User> findPage(Long afterId, int limit);
+
     User create(User user);
 
     User update(User user);
 
     User getUserById(Long id);
 
+    List<User> getUsersByIds(List<Long> ids);
+
+    boolean exists(Long id);
+
+    default void checkExists(Long id) {
+        if (!exists(id)) {
+            throw new EntityNotFoundException(String.format("Пользователя c id %s отсутствует", id));
+        }
+    }
+
     List<User> getFriends(Long id);
 
     void addFriend(Long id, Long friendId);
@@ -22,5 +38,7 @@ public interface UserStorage {
 
     List<User> getCommonFriends(Long id, Long otherId);
 
+    List<User> getFriendSuggestions(Long id, int limit);
+
     void remove(Long userId);
 }
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters behind the ETags of frequently polled responses. Storages bump a counter after the write that
+ * changes the response is visible to readers, and controllers read the tag before building the body, so a tag is
+ * never newer than the data it was sent with. Counters of removed entities are kept so that an old tag cannot
+ * match again. Tags carry the start time of the process because counters start from zero after a restart.
+ */
+@Component
+public class EntityVersions {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Long, AtomicLong> films = new ConcurrentHashMap<>();
+
+    private final Map<Long, AtomicLong> friendLists = new ConcurrentHashMap<>();
+
+    private final AtomicLong popular = new AtomicLong();
+
+    private final AtomicLong directors = new AtomicLong();
+
+    private final AtomicLong users = new AtomicLong();
+
+    public String filmTag(Long filmId) {
+        return tag("f", version(films, filmId), directors.get());
+    }
+
+    public String popularTag() {
+        return tag("p", popular.get(), directors.get());
+    }
+
+    public String friendsTag(Long userId) {
+        return tag("u", version(friendLists, userId), users.get());
+    }
+
+    public void filmChanged(Long filmId) {
+        bump(films, filmId);
+        popular.incrementAndGet();
+    }
+
+    public void likesChanged() {
+        popular.incrementAndGet();
+    }
+
+    public void directorsChanged() {
+        directors.incrementAndGet();
+    }
+
+    public void friendsChanged(Long userId) {
+        bump(friendLists, userId);
+    }
+
+    public void userChanged(Long userId) {
+        bump(friendLists, userId);
+        users.incrementAndGet();
+    }
+
+    private String tag(String kind, long version, long references) {
+        return "\"" + kind + epoch + "-" + version + "-" + references + "\"";
+    }
+
+    private static long version(Map<Long, AtomicLong> versions, Long id) {
+        AtomicLong version = versions.get(id);
+        return version == null ? 0 : version.get();
+    }
+
+    private static void bump(Map<Long, AtomicLong> versions, Long id) {
+        versions.computeIfAbsent(id, key -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.CacheStats;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-bounded LRU cache of hydrated films placed in front of the films/genres/directors joins.
+ * Loads take a stamp before reading the database and are stored only if no invalidation happened
+ * in between, so a slow read can never put back a film that a concurrent write has just evicted.
+ * Films are mutable, so the cache keeps its own copies and hands out a fresh copy on every hit.
+ */
+@Component
+public class FilmCache {
+    private final int maxSize;
+
+    private final Map<Long, Film> films;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public FilmCache(@Value("${filmorate.cache.films.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.films = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Film> eldest) {
+                if (size() > FilmCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Film get(Long id) {
+        Film film;
+        lock.lock();
+        try {
+            film = films.get(id);
+        } finally {
+            lock.unlock();
+        }
+        if (film == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copy(film);
+    }
+
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    public void put(Film film, long stamp) {
+        if (maxSize <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (invalidations.get() == stamp) {
+                films.put(film.getId(), copy(film));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(Long id) {
+        lock.lock();
+        try {
+            invalidations.incrementAndGet();
+            films.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            invalidations.incrementAndGet();
+            films.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats getStats() {
+        int size;
+        lock.lock();
+        try {
+            size = films.size();
+        } finally {
+            lock.unlock();
+        }
+        return CacheStats.builder()
+                .name("films")
+                .size(size)
+                .maxSize(maxSize)
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .evictions(evictions.sum())
+                .build();
+    }
+
+    private static Film copy(Film film) {
+        return Film.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .mpa(film.getMpa())
+                .genres(film.getGenres() == null ? null : new LinkedHashSet<>(film.getGenres()))
+                .directors(film.getDirectors() == null ? null : new LinkedHashSet<>(film.getDirectors()))
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Genres, MPA ratings and directors loaded once at startup.
+ * Each table is an immutable snapshot replaced as a whole, so readers never lock and
+ * director writes publish a new copy instead of mutating the current one.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataCache {
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Snapshot<Genre> genres = new Snapshot<>(List.of(), Genre::getId);
+
+    private volatile Snapshot<Mpa> mpa = new Snapshot<>(List.of(), Mpa::getId);
+
+    private volatile Snapshot<Director> directors = new Snapshot<>(List.of(), Director::getId);
+
+    @PostConstruct
+    public void load() {
+        genres = new Snapshot<>(jdbcTemplate.query("SELECT id, name FROM genres", (rs, rowNum) -> Genre.builder()
+                .id(rs.getLong("id"))
+                .name(rs.getString("name"))
+                .build()), Genre::getId);
+        mpa = new Snapshot<>(jdbcTemplate.query("SELECT id, name FROM mpa", (rs, rowNum) -> Mpa.builder()
+                .id(rs.getLong("id"))
+                .name(rs.getString("name"))
+                .build()), Mpa::getId);
+        directors = new Snapshot<>(jdbcTemplate.query("SELECT id, name FROM directors", (rs, rowNum) -> Director.builder()
+                .id(rs.getLong("id"))
+                .name(rs.getString("name"))
+                .build()), Director::getId);
+    }
+
+    public List<Genre> getGenres() {
+        return genres.values;
+    }
+
+    public Genre getGenre(Long id) {
+        return genres.get(id);
+    }
+
+    public List<Mpa> getMpa() {
+        return mpa.values;
+    }
+
+    public Mpa getMpa(Long id) {
+        return mpa.get(id);
+    }
+
+    public List<Director> getDirectors() {
+        return directors.values;
+    }
+
+    public Director getDirector(Long id) {
+        return directors.get(id);
+    }
+
+    public synchronized void putDirector(Director director) {
+        Map<Long, Director> copy = new TreeMap<>(directors.byId);
+        copy.put(director.getId(), director);
+        directors = new Snapshot<>(copy.values(), Director::getId);
+    }
+
+    public synchronized void removeDirector(Long id) {
+        Map<Long, Director> copy = new TreeMap<>(directors.byId);
+        copy.remove(id);
+        directors = new Snapshot<>(copy.values(), Director::getId);
+    }
+
+    private static final class Snapshot<T> {
+        private final List<T> values;
+        private final Map<Long, T> byId;
+
+        private Snapshot(Collection<T> values, Function<T, Long> id) {
+            Map<Long, T> sorted = new TreeMap<>();
+            for (T value : values) {
+                sorted.put(id.apply(value), value);
+            }
+            this.values = List.copyOf(sorted.values());
+            this.byId = Map.copyOf(sorted);
+        }
+
+        private T get(Long id) {
+            // Map.copyOf rejects null keys on lookup too; an absent id is simply not found.
+            return id == null ? null : byId.get(id);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.CacheStats;
+import ru.yandex.practicum.filmorate.model.Review;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Top-N "most useful" reviews per film and across all films, ordered like the reviews query (useful desc, id).
+ * Lists are loaded lazily and then kept up to date by every review write. A list that holds fewer than N
+ * reviews is complete and absorbs any change; a full list cannot know what lies beyond its last element, so
+ * a change that pushes one of its reviews past that boundary drops the list and the next read reloads it.
+ */
+@Component
+public class ReviewTopCache {
+    private static final Long ALL_FILMS = 0L;
+
+    private static final Comparator<Review> MOST_USEFUL = Comparator.comparingInt(Review::getUseful).reversed()
+            .thenComparing(Review::getReviewId);
+
+    private final int topSize;
+
+    private final int maxLists;
+
+    private final Map<Long, TopList> lists;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public ReviewTopCache(@Value("${filmorate.cache.reviews.top-size:100}") int topSize,
+                          @Value("${filmorate.cache.reviews.max-lists:10000}") int maxLists) {
+        this.topSize = Math.max(1, topSize);
+        this.maxLists = maxLists;
+        this.lists = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TopList> eldest) {
+                if (size() > ReviewTopCache.this.maxLists) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public int getTopSize() {
+        return topSize;
+    }
+
+    public List<Review> get(Long filmId) {
+        TopList list;
+        lock.lock();
+        try {
+            list = lists.get(key(filmId));
+        } finally {
+            lock.unlock();
+        }
+        if (list == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return list.reviews;
+    }
+
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    public void put(Long filmId, List<Review> reviews, long stamp) {
+        if (maxLists <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (invalidations.get() == stamp) {
+                lists.put(key(filmId), new TopList(List.copyOf(reviews), reviews.size() < topSize));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void putReview(Review review) {
+        lock.lock();
+        try {
+            invalidations.incrementAndGet();
+            update(review.getFilmId(), review.getReviewId(), review);
+            update(ALL_FILMS, review.getReviewId(), review);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Publishes a review changed by an already committed transaction. The caller takes a {@link #stamp()} and then
+     * re-reads the row outside the cache lock. If another write reached the cache in between, the row read may
+     * already be stale, so instead of applying it the lists holding the review are dropped and reloaded on demand.
+     */
+    public void refreshReview(Review review, long stamp) {
+        lock.lock();
+        try {
+            if (invalidations.getAndIncrement() == stamp) {
+                update(review.getFilmId(), review.getReviewId(), review);
+                update(ALL_FILMS, review.getReviewId(), review);
+            } else {
+                lists.remove(review.getFilmId());
+                lists.remove(ALL_FILMS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void removeReview(Review review) {
+        lock.lock();
+        try {
+            invalidations.incrementAndGet();
+            update(review.getFilmId(), review.getReviewId(), null);
+            update(ALL_FILMS, review.getReviewId(), null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats getStats() {
+        int size;
+        lock.lock();
+        try {
+            size = lists.size();
+        } finally {
+            lock.unlock();
+        }
+        return CacheStats.builder()
+                .name("reviews")
+                .size(size)
+                .maxSize(maxLists)
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .evictions(evictions.sum())
+                .build();
+    }
+
+    private void update(Long key, Long reviewId, Review review) {
+        TopList list = lists.get(key);
+        if (list == null) {
+            return;
+        }
+        List<Review> reviews = new ArrayList<>(list.reviews);
+        boolean present = reviews.removeIf(cached -> cached.getReviewId().equals(reviewId));
+        if (review == null) {
+            if (present) {
+                replace(key, list.complete ? new TopList(reviews, true) : null);
+            }
+            return;
+        }
+
+        int position = Collections.binarySearch(reviews, review, MOST_USEFUL);
+        position = position < 0 ? -position - 1 : position;
+        if (!list.complete && position == reviews.size()) {
+            if (present) {
+                replace(key, null);
+            }
+            return;
+        }
+        reviews.add(position, review);
+        boolean complete = list.complete;
+        if (reviews.size() > topSize) {
+            reviews.remove(reviews.size() - 1);
+            complete = false;
+        }
+        replace(key, new TopList(reviews, complete));
+    }
+
+    private void replace(Long key, TopList list) {
+        if (list == null) {
+            lists.remove(key);
+        } else {
+            lists.put(key, new TopList(Collections.unmodifiableList(list.reviews), list.complete));
+        }
+    }
+
+    private static Long key(Long filmId) {
+        return filmId == null ? ALL_FILMS : filmId;
+    }
+
+    private static final class TopList {
+        private final List<Review> reviews;
+
+        private final boolean complete;
+
+        private TopList(List<Review> reviews, boolean complete) {
+            this.reviews = reviews;
+            this.complete = complete;
+        }
+    }
+}
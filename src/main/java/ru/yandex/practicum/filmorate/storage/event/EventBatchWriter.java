@@ -0,0 +1,206 @@
+package ru.yandex.practicum.filmorate.storage.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.Event;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Group-commits feed events. In {@code sync} mode every event is inserted by the calling thread; in
+ * {@code interval} mode a background thread flushes the queue every {@code flush-interval-ms}; in {@code size}
+ * mode it flushes as soon as a full batch has accumulated and at the latest after the interval.
+ * The queue is bounded and {@link #submit} blocks while it is full. Batches are written one at a time in
+ * queue order, so event ids, and therefore the feed of every user, keep the order in which events happened.
+ * Each batch is one transaction, so a failed batch leaves no rows behind when it is retried event by event.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "db", matchIfMissing = true)
+public class EventBatchWriter {
+    private static final String INSERT_EVENT = "INSERT INTO events (user_id, entity_id, event_type, operation, event_time) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Mode mode;
+
+    private final BlockingQueue<Event> queue;
+
+    private final int batchSize;
+
+    private final long flushIntervalMillis;
+
+    private final Object writeLock = new Object();
+
+    private final Object batchReady = new Object();
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    public EventBatchWriter(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${filmorate.events.write-mode:interval}") String mode,
+                            @Value("${filmorate.events.queue-capacity:10000}") int queueCapacity,
+                            @Value("${filmorate.events.batch-size:500}") int batchSize,
+                            @Value("${filmorate.events.flush-interval-ms:50}") long flushIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (mode == Mode.SYNC) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "event-batch-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (worker != null) {
+            running = false;
+            worker.interrupt();
+            worker.join();
+        }
+        flush();
+    }
+
+    public void submit(Event event) {
+        if (mode == Mode.SYNC || !running) {
+            writeNow(event);
+            return;
+        }
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeNow(event);
+            return;
+        }
+        if (mode == Mode.SIZE && queue.size() >= batchSize) {
+            synchronized (batchReady) {
+                batchReady.notifyAll();
+            }
+        }
+    }
+
+    public void flush() {
+        synchronized (writeLock) {
+            List<Event> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void writeNow(Event event) {
+        synchronized (writeLock) {
+            flush();
+            batchInsert(List.of(event));
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                awaitBatch();
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Не удалось записать события ленты", e);
+            }
+        }
+    }
+
+    private void awaitBatch() throws InterruptedException {
+        if (mode == Mode.INTERVAL) {
+            Thread.sleep(flushIntervalMillis);
+            return;
+        }
+        long deadline = System.currentTimeMillis() + flushIntervalMillis;
+        synchronized (batchReady) {
+            long remaining = flushIntervalMillis;
+            while (running && queue.size() < batchSize && remaining > 0) {
+                batchReady.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+    }
+
+    private void insert(List<Event> events) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> batchInsert(events));
+        } catch (DataAccessException e) {
+            if (events.size() == 1) {
+                log.error("Событие {} не записано: {}", events.get(0), e.getMostSpecificCause().getMessage());
+                return;
+            }
+            // A single bad row (e.g. a user removed after the event was queued) must not drop its neighbours.
+            for (Event event : events) {
+                insert(List.of(event));
+            }
+        }
+    }
+
+    private void batchInsert(List<Event> events) {
+        jdbcTemplate.batchUpdate(INSERT_EVENT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement stmt, int i) throws SQLException {
+                setEvent(stmt, events.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return events.size();
+            }
+        });
+    }
+
+    private static void setEvent(PreparedStatement stmt, Event event) throws SQLException {
+        stmt.setLong(1, event.getUserId());
+        stmt.setLong(2, event.getEntityId());
+        stmt.setString(3, event.getEventType().toString());
+        stmt.setString(4, event.getOperation().toString());
+        stmt.setTimestamp(5, new Timestamp(event.getTimestamp()));
+    }
+
+    private enum Mode {
+        SYNC,
+        INTERVAL,
+        SIZE
+    }
+}
@@ -0,0 +1,200 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.BulkStorage;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.index.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.index.FilmRecommender;
+import ru.yandex.practicum.filmorate.storage.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.index.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.index.KnownIds;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Writes imported rows chunk by chunk: every call is one transaction with one JDBC batch per table.
+ * Rows that would violate a uniqueness or reference constraint are skipped by the statements themselves
+ * and reported with a zero update count instead of failing the whole chunk.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "db", matchIfMissing = true)
+@RequiredArgsConstructor
+public class BulkDbStorage implements BulkStorage {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final FilmLeaderboard filmLeaderboard;
+
+    private final FilmRecommender filmRecommender;
+
+    private final FilmSearchIndex filmSearchIndex;
+
+    private final FriendGraph friendGraph;
+
+    private final KnownIds knownIds;
+
+    private final EntityVersions entityVersions;
+
+    @Override
+    public List<Long> insertFilms(List<Film> films) {
+        List<Long> ids = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            List<Long> filmIds = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection ->
+                    insertFilmRows(connection, films));
+
+            List<Object[]> genreRows = new ArrayList<>();
+            List<Object[]> directorRows = new ArrayList<>();
+            for (int i = 0; i < films.size(); i++) {
+                Long filmId = Objects.requireNonNull(filmIds).get(i);
+                Film film = films.get(i);
+                if (film.getGenres() != null) {
+                    film.getGenres().stream().map(Genre::getId).distinct()
+                            .forEach(genreId -> genreRows.add(new Object[]{filmId, genreId}));
+                }
+                if (film.getDirectors() != null) {
+                    film.getDirectors().stream().map(Director::getId).distinct()
+                            .forEach(directorId -> directorRows.add(new Object[]{filmId, directorId}));
+                }
+            }
+            if (!genreRows.isEmpty()) {
+                jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", genreRows);
+            }
+            if (!directorRows.isEmpty()) {
+                jdbcTemplate.batchUpdate("INSERT INTO film_directors (film_id, director_id) VALUES (?, ?)", directorRows);
+            }
+            return filmIds;
+        }));
+
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            film.setId(ids.get(i));
+            knownIds.addFilm(film.getId());
+            filmLeaderboard.putFilm(film);
+            filmSearchIndex.putFilm(film);
+            entityVersions.filmChanged(film.getId());
+        }
+        return ids;
+    }
+
+    @Override
+    public int[] insertUsers(List<User> users) {
+        String sqlQuery = "INSERT INTO users (email, login, name, birthday) SELECT ?, ?, ?, ? " +
+                "WHERE NOT EXISTS (SELECT 1 FROM users WHERE email = ?) " +
+                "AND NOT EXISTS (SELECT 1 FROM users WHERE login = ?)";
+        List<Object[]> rows = users.stream()
+                .map(user -> new Object[]{user.getEmail(), user.getLogin(), user.getName(),
+                        Date.valueOf(user.getBirthday()), user.getEmail(), user.getLogin()})
+                .collect(Collectors.toList());
+        long lastId = Objects.requireNonNull(
+                jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class));
+        int[] counts = Objects.requireNonNull(transactionTemplate.execute(status ->
+                jdbcTemplate.batchUpdate(sqlQuery, rows)));
+
+        // The conditional insert returns no keys; every id above the previous maximum is a new user.
+        if (Arrays.stream(counts).anyMatch(count -> count > 0)) {
+            jdbcTemplate.query("SELECT id FROM users WHERE id > ?", rs -> {
+                knownIds.addUser(rs.getLong("id"));
+            }, lastId);
+        }
+        return counts;
+    }
+
+    @Override
+    public int[] insertLikes(List<Like> likes) {
+        String sqlQuery = "INSERT INTO likes (user_id, film_id) SELECT u.id, f.id FROM users u JOIN films f ON f.id = ? " +
+                "WHERE u.id = ? AND NOT EXISTS (SELECT 1 FROM likes WHERE user_id = u.id AND film_id = f.id)";
+        List<Object[]> rows = likes.stream()
+                .map(like -> new Object[]{like.getFilmId(), like.getUserId()})
+                .collect(Collectors.toList());
+        int[] counts = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            int[] inserted = jdbcTemplate.batchUpdate(sqlQuery, rows);
+            List<Object[]> countRows = new ArrayList<>();
+            for (int i = 0; i < inserted.length; i++) {
+                if (inserted[i] > 0) {
+                    countRows.add(new Object[]{likes.get(i).getFilmId()});
+                }
+            }
+            if (!countRows.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE films SET like_count = like_count + 1 WHERE id = ?", countRows);
+            }
+            return inserted;
+        }));
+
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                Like like = likes.get(i);
+                filmLeaderboard.addLike(like.getFilmId());
+                filmRecommender.addLike(like.getFilmId(), like.getUserId());
+                entityVersions.likesChanged();
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public int[] insertFriends(List<Friendship> friendships) {
+        String sqlQuery = "INSERT INTO friends (user_id, friend_id) SELECT u.id, f.id FROM users u JOIN users f ON f.id = ? " +
+                "WHERE u.id = ? AND u.id <> f.id " +
+                "AND NOT EXISTS (SELECT 1 FROM friends WHERE user_id = u.id AND friend_id = f.id)";
+        List<Object[]> rows = friendships.stream()
+                .map(friendship -> new Object[]{friendship.getFriendId(), friendship.getUserId()})
+                .collect(Collectors.toList());
+        int[] counts = Objects.requireNonNull(transactionTemplate.execute(status ->
+                jdbcTemplate.batchUpdate(sqlQuery, rows)));
+
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                Friendship friendship = friendships.get(i);
+                friendGraph.addFriend(friendship.getUserId(), friendship.getFriendId());
+                entityVersions.friendsChanged(friendship.getUserId());
+            }
+        }
+        return counts;
+    }
+
+    private List<Long> insertFilmRows(Connection connection, List<Film> films) throws SQLException {
+        String sqlQuery = "INSERT INTO films (name, description, releasedate, duration, mpa_id) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sqlQuery, new String[]{"id"})) {
+            for (Film film : films) {
+                stmt.setString(1, film.getName());
+                stmt.setString(2, film.getDescription());
+                stmt.setDate(3, Date.valueOf(film.getReleaseDate()));
+                stmt.setInt(4, film.getDuration());
+                stmt.setLong(5, film.getMpa().getId());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            List<Long> ids = new ArrayList<>(films.size());
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                while (keys.next()) {
+                    ids.add(keys.getLong(1));
+                }
+            }
+            if (ids.size() != films.size()) {
+                throw new SQLException("Драйвер вернул " + ids.size() + " ключей для " + films.size() + " фильмов");
+            }
+            return ids;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ru.yandex.practicum.filmorate.storage.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -8,33 +9,48 @@ import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
 import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.storage.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.FilmViewStorage;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.cache.FilmCache;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.index.FilmSearchIndex;
 
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "db", matchIfMissing = true)
 @RequiredArgsConstructor
 public class DirectorDbStorage implements DirectorStorage {
     private final JdbcTemplate jdbcTemplate;
 
+    private final ReferenceDataCache referenceDataCache;
+
+    private final FilmCache filmCache;
+
+    private final FilmSearchIndex filmSearchIndex;
+
+    private final FilmViewStorage filmViewStorage;
+
+    private final EntityVersions entityVersions;
+
     @Override
     public List<Director> findAll() {
-        String sqlQuery = "SELECT * FROM directors";
-        return jdbcTemplate.query(sqlQuery, this::createDirector);
+        return referenceDataCache.getDirectors();
     }
 
     @Override
     public Director getById(Long id) {
-        String sqlQuery = "SELECT * FROM directors WHERE id = ?";
-        List<Director> directors = jdbcTemplate.query(sqlQuery, this::createDirector, id);
-        if (directors.size() != 1) {
+        Director director = referenceDataCache.getDirector(id);
+        if (director == null) {
             throw new EntityNotFoundException(String.format("Директор с id %s отсутствует", id));
         }
-        return directors.get(0);
+        return director;
     }
 
     @Override
@@ -49,40 +65,76 @@ public class DirectorDbStorage implements DirectorStorage {
             return stmt;
         }, keyHolder);
 
-        return getById(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        Director createdDirector = Director.builder()
+                .id(Objects.requireNonNull(keyHolder.getKey()).longValue())
+                .name(director.getName())
+                .build();
+        referenceDataCache.putDirector(createdDirector);
+        filmSearchIndex.putDirector(createdDirector);
+        return createdDirector;
     }
 
     @Override
     public Director update(Director director) {
         String sqlQuery = "UPDATE directors SET name = ? WHERE id = ?";
-        jdbcTemplate.update(sqlQuery, director.getName(), director.getId());
-
-        return getById(director.getId());
+        if (jdbcTemplate.update(sqlQuery, director.getName(), director.getId()) == 0) {
+            throw new EntityNotFoundException(String.format("Директор с id %s отсутствует", director.getId()));
+        }
+        referenceDataCache.putDirector(director);
+        filmSearchIndex.putDirector(director);
+        filmCache.invalidateAll();
+        filmViewStorage.invalidate(getDirectorFilmIds(director.getId()));
+        entityVersions.directorsChanged();
+        return director;
     }
 
     @Override
     public void remove(Long id) {
         String sqlQuery = "DELETE FROM directors WHERE id = ?";
+        // The links are removed by the cascade, so the affected films are collected first.
+        List<Long> filmIds = getDirectorFilmIds(id);
         jdbcTemplate.update(sqlQuery, id);
+        referenceDataCache.removeDirector(id);
+        filmSearchIndex.removeDirector(id);
+        filmCache.invalidateAll();
+        filmViewStorage.invalidate(filmIds);
+        entityVersions.directorsChanged();
     }
 
     @Override
     public void setFilmsDirectors(Long filmId, Set<Director> directors) {
-        String sqlQueryCleanFilmsDirectors = "DELETE FROM film_directors WHERE film_id = ?";
-        String sqlQuerySetDirectors = "INSERT INTO film_directors (film_id, director_id) VALUES (?, ?)";
-        jdbcTemplate.update(sqlQueryCleanFilmsDirectors, filmId);
+        String sqlQueryCurrentDirectors = "SELECT director_id FROM film_directors WHERE film_id = ?";
+        String sqlQueryRemoveDirector = "DELETE FROM film_directors WHERE film_id = ? AND director_id = ?";
+        String sqlQuerySetDirector = "INSERT INTO film_directors (film_id, director_id) VALUES (?, ?)";
 
+        Set<Long> current = new HashSet<>(jdbcTemplate.queryForList(sqlQueryCurrentDirectors, Long.class, filmId));
+        Set<Long> target = new LinkedHashSet<>();
         if (directors != null) {
-            for (Director director : Set.copyOf(directors)) {
-                jdbcTemplate.update(sqlQuerySetDirectors, filmId, director.getId());
-            }
+            directors.forEach(director -> target.add(director.getId()));
+        }
+
+        List<Object[]> removed = current.stream()
+                .filter(directorId -> !target.contains(directorId))
+                .map(directorId -> new Object[]{filmId, directorId})
+                .collect(Collectors.toList());
+        List<Object[]> added = target.stream()
+                .filter(directorId -> !current.contains(directorId))
+                .map(directorId -> new Object[]{filmId, directorId})
+                .collect(Collectors.toList());
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
         }
+
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate(sqlQueryRemoveDirector, removed);
+        }
+        if (!added.isEmpty()) {
+            jdbcTemplate.batchUpdate(sqlQuerySetDirector, added);
+        }
+        filmCache.invalidate(filmId);
     }
 
-    private Director createDirector(ResultSet rs, int rowNum) throws SQLException {
-        return Director.builder()
-                .id(rs.getLong("id"))
-                .name(rs.getString("name"))
-                .build();
+    private List<Long> getDirectorFilmIds(Long directorId) {
+        return jdbcTemplate.queryForList("SELECT film_id FROM film_directors WHERE director_id = ?", Long.class, directorId);
     }
 }
@@ -1,56 +1,109 @@
 package ru.yandex.practicum.filmorate.storage.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Event;
 import ru.yandex.practicum.filmorate.storage.EventStorage;
 import ru.yandex.practicum.filmorate.model.EventType;
 import ru.yandex.practicum.filmorate.model.Operation;
+import ru.yandex.practicum.filmorate.storage.event.EventBatchWriter;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "db", matchIfMissing = true)
 @RequiredArgsConstructor
 public class EventDbStorage implements EventStorage {
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String SELECT_EVENTS = "SELECT id, user_id, entity_id, event_type, operation, event_time FROM events ";
 
     private final JdbcTemplate jdbcTemplate;
 
+    private final EventBatchWriter eventBatchWriter;
+
     @Override
     public List<Event> getFeedByUserId(Long id) {
-        String sqlQuery = "SELECT * FROM events WHERE user_id = ?";
+        String sqlQuery = SELECT_EVENTS + "WHERE user_id = ? ORDER BY event_time, id";
 
-        return jdbcTemplate.query(sqlQuery, this::createEvent, id);
+        eventBatchWriter.flush();
+        List<Event> events = new ArrayList<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(sqlQuery);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            stmt.setLong(1, id);
+            return stmt;
+        }, rs -> {
+            events.add(createEvent(rs, 0));
+        });
+        return events;
+    }
+
+    @Override
+    public List<Event> getFeedPage(Long userId, Long sinceTime, Long sinceId, Long beforeTime, Long beforeId, int limit) {
+        StringBuilder sqlQuery = new StringBuilder(SELECT_EVENTS);
+        List<Object> params = new ArrayList<>();
+        sqlQuery.append("WHERE user_id = ? ");
+        params.add(userId);
+        if (sinceTime != null) {
+            Timestamp since = new Timestamp(sinceTime);
+            sqlQuery.append("AND event_time >= ? AND (event_time > ? OR id > ?) ");
+            params.add(since);
+            params.add(since);
+            params.add(sinceId);
+        }
+        if (beforeTime != null) {
+            Timestamp before = new Timestamp(beforeTime);
+            sqlQuery.append("AND event_time <= ? AND (event_time < ? OR id < ?) ");
+            params.add(before);
+            params.add(before);
+            params.add(beforeId);
+        }
+        boolean backwards = beforeTime != null && sinceTime == null;
+        sqlQuery.append(backwards ? "ORDER BY event_time DESC, id DESC " : "ORDER BY event_time, id ")
+                .append("LIMIT ?");
+        params.add(limit);
+
+        eventBatchWriter.flush();
+        List<Event> events = jdbcTemplate.query(sqlQuery.toString(), this::createEvent, params.toArray());
+        if (backwards) {
+            Collections.reverse(events);
+        }
+        return events;
     }
 
     @Override
     public void addEvent(Long userId, Long entityId, EventType eventType, Operation operation) {
-        String sqlQuery = "INSERT INTO events (user_id, entity_id, event_type, operation, event_time) VALUES (?, ?, ?, ?, ?)";
-
-        jdbcTemplate.update(connection -> {
-            PreparedStatement stmt = connection.prepareStatement(sqlQuery, new String[]{"id"});
-            stmt.setLong(1, userId);
-            stmt.setLong(2, entityId);
-            stmt.setString(3, eventType.toString());
-            stmt.setString(4, operation.toString());
-            stmt.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
-            return stmt;
-        });
+        eventBatchWriter.submit(Event.builder()
+                .userId(userId)
+                .entityId(entityId)
+                .eventType(eventType)
+                .operation(operation)
+                .timestamp(System.currentTimeMillis())
+                .build());
+    }
+
+    @Override
+    public void flush() {
+        eventBatchWriter.flush();
     }
 
     private Event createEvent(ResultSet rs, int rowNum) throws SQLException {
         return Event.builder()
-                .eventId(rs.getLong("id"))
-                .userId(rs.getLong("user_id"))
-                .entityId(rs.getLong("entity_id"))
-                .eventType(EventType.valueOf(rs.getString("event_type")))
-                .operation(Operation.valueOf(rs.getString("operation")))
-                .timestamp(rs.getTimestamp("event_time").getTime())
+                .eventId(rs.getLong(1))
+                .userId(rs.getLong(2))
+                .entityId(rs.getLong(3))
+                .eventType(EventType.valueOf(rs.getString(4)))
+                .operation(Operation.valueOf(rs.getString(5)))
+                .timestamp(rs.getTimestamp(6).getTime())
                 .build();
     }
 }
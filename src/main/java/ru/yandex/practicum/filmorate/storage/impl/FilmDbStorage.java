@@ -1,6 +1,7 @@
 package ru.yandex.practicum.filmorate.storage.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
@@ -14,26 +15,44 @@ import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.storage.DirectorStorage;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.FilmViewStorage;
 import ru.yandex.practicum.filmorate.storage.GenreStorage;
 import ru.yandex.practicum.filmorate.storage.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.cache.FilmCache;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.index.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.index.FilmRecommender;
+import ru.yandex.practicum.filmorate.storage.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.index.KnownIds;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "db", matchIfMissing = true)
 @RequiredArgsConstructor
 @Primary
 public class FilmDbStorage implements FilmStorage {
+    private static final int STREAM_FETCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
 
     private final GenreStorage genreStorage;
@@ -44,17 +63,69 @@ public class FilmDbStorage implements FilmStorage {
 
     private final UserStorage userStorage;
 
+    private final FilmLeaderboard filmLeaderboard;
+
+    private final FilmRecommender filmRecommender;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final FilmCache filmCache;
+
+    private final FilmSearchIndex filmSearchIndex;
+
+    private final KnownIds knownIds;
+
+    private final FilmViewStorage filmViewStorage;
+
+    private final EntityVersions entityVersions;
+
     @Override
     public List<Film> findAll() {
-        String sqlQuery = "SELECT f.id, f.name, f.description, f.releaseDate, f.duration, m.id AS mpa_id, m.name AS mpa_name, g.id AS genre_id, g.name AS genre_name, d.id AS director_id, d.name AS director_name " +
+        List<Film> films = new ArrayList<>();
+        streamAll(films::add);
+        return films;
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        String sqlQuery = "SELECT f.id, f.name, f.description, f.releaseDate, f.duration, f.mpa_id, fg.genre_id, fd.director_id " +
                 "FROM films f " +
-                "LEFT JOIN mpa m ON f.mpa_id = m.id " +
                 "LEFT JOIN film_genres fg ON f.id = fg.film_id " +
-                "LEFT JOIN genres g ON fg.genre_id = g.id " +
                 "LEFT JOIN film_directors fd ON f.id = fd.film_id " +
-                "LEFT JOIN directors d ON fd.director_id = d.id " +
-                "GROUP BY f.id, m.id, g.id, d.id";
-        return jdbcTemplate.query(sqlQuery, this::createFilm);
+                "ORDER BY f.id, fg.genre_id, fd.director_id";
+        Film[] current = new Film[1];
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(sqlQuery);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            return stmt;
+        }, rs -> {
+            long id = rs.getLong("id");
+            if (current[0] == null || current[0].getId() != id) {
+                if (current[0] != null) {
+                    consumer.accept(current[0]);
+                }
+                current[0] = mapFilm(rs);
+            }
+            Genre genre = referenceDataCache.getGenre(rs.getLong("genre_id"));
+            if (genre != null) {
+                current[0].getGenres().add(genre);
+            }
+            Director director = referenceDataCache.getDirector(rs.getLong("director_id"));
+            if (director != null) {
+                current[0].getDirectors().add(director);
+            }
+        });
+
+        if (current[0] != null) {
+            consumer.accept(current[0]);
+        }
+    }
+
+    @Override
+    public List<Long> findPageIds(Long afterId, int limit) {
+        String sqlQuery = "SELECT id FROM films WHERE id > ? ORDER BY id LIMIT ?";
+        return jdbcTemplate.queryForList(sqlQuery, Long.class, afterId, limit);
     }
 
     @Override
@@ -75,41 +146,82 @@ public class FilmDbStorage implements FilmStorage {
         Long filmId = Objects.requireNonNull(keyHolder.getKey()).longValue();
         genreStorage.setFilmsGenres(filmId, film.getGenres());
         directorStorage.setFilmsDirectors(filmId, film.getDirectors());
-        return getFilmById(filmId);
+        knownIds.addFilm(filmId);
+        Film createdFilm = getFilmById(filmId);
+        filmViewStorage.put(createdFilm);
+        filmLeaderboard.putFilm(createdFilm);
+        filmSearchIndex.putFilm(createdFilm);
+        entityVersions.filmChanged(filmId);
+        return createdFilm;
     }
 
     @Override
     public Film update(Film film) {
+        Film currentFilm = getFilmById(film.getId());
         String sqlQuery = "UPDATE films SET name = ?, description = ?, releasedate = ?, duration = ?, mpa_id =? WHERE id = ?";
         jdbcTemplate.update(sqlQuery, film.getName(), film.getDescription(), film.getReleaseDate(), film.getDuration(), film.getMpa().getId(), film.getId());
-        genreStorage.setFilmsGenres(film.getId(), film.getGenres());
-        directorStorage.setFilmsDirectors(film.getId(), film.getDirectors());
-        return getFilmById(film.getId());
+        filmCache.invalidate(film.getId());
+        if (!ids(currentFilm.getGenres(), Genre::getId).equals(ids(film.getGenres(), Genre::getId))) {
+            genreStorage.setFilmsGenres(film.getId(), film.getGenres());
+        }
+        if (!ids(currentFilm.getDirectors(), Director::getId).equals(ids(film.getDirectors(), Director::getId))) {
+            directorStorage.setFilmsDirectors(film.getId(), film.getDirectors());
+        }
+        Film updatedFilm = getFilmById(film.getId());
+        filmViewStorage.put(updatedFilm);
+        filmLeaderboard.putFilm(updatedFilm);
+        filmSearchIndex.putFilm(updatedFilm);
+        entityVersions.filmChanged(film.getId());
+        return updatedFilm;
     }
 
     @Override
     public Film getFilmById(Long id) {
-        String sqlQuery = "SELECT f.id, f.name, f.description, f.releaseDate, f.duration, m.id AS mpa_id, m.name AS mpa_name, g.id AS genre_id, g.name AS genre_name, d.id AS director_id, d.name AS director_name " +
-                "FROM films f " +
-                "LEFT JOIN mpa m ON f.mpa_id = m.id " +
-                "LEFT JOIN film_genres fg ON f.id = fg.film_id " +
-                "LEFT JOIN genres g ON fg.genre_id = g.id " +
-                "LEFT JOIN film_directors fd ON f.id = fd.film_id " +
-                "LEFT JOIN directors d ON fd.director_id = d.id " +
-                "WHERE f.id = ? " +
-                "GROUP BY f.id, m.id, g.id, d.id";
-
-        List<Film> films = jdbcTemplate.query(sqlQuery, this::createFilm, id);
+        List<Film> films = getFilmsByIds(List.of(id));
         if (films.size() != 1) {
             throw new EntityNotFoundException(String.format("Фильм c id %s отсутствует", id));
         }
         return films.get(0);
     }
 
+    @Override
+    public List<Film> getFilmsByIds(List<Long> ids) {
+        Map<Long, Film> films = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Film film = filmCache.get(id);
+            if (film != null) {
+                films.put(id, film);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long stamp = filmCache.stamp();
+            for (Film film : loadFilms(missing).values()) {
+                filmCache.put(film, stamp);
+                films.put(film.getId(), film);
+            }
+        }
+
+        return ids.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return knownIds.mightContainFilm(id)
+                && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM films WHERE id = ?)", Boolean.class, id));
+    }
+
     @Override
     public void addLike(Long filmId, Long userId) {
-        getFilmById(filmId);
-        userStorage.getUserById(userId);
+        checkExists(filmId);
+        userStorage.checkExists(userId);
 
         likeStorage.addLike(filmId, userId);
     }
@@ -121,12 +233,7 @@ public class FilmDbStorage implements FilmStorage {
 
     @Override
     public List<Film> getPopularFilms(Integer limit, Long genreId, Integer year) {
-        List<Film> films = new ArrayList<>();
-
-        for (Long id : likeStorage.getPopularFilms(limit, genreId, year)) {
-            films.add(getFilmById(id));
-        }
-        return films;
+        return getFilmsByIds(likeStorage.getPopularFilms(limit, genreId, year));
     }
 
     @Override
@@ -150,79 +257,90 @@ public class FilmDbStorage implements FilmStorage {
     public List<Film> getDirectorFilmsByLikes(Long directorId) {
         directorStorage.getById(directorId);
 
-        String sqlQuery = "SELECT f.id, f.name, f.description, f.releaseDate, f.duration, m.id AS mpa_id, m.name AS mpa_name, g.id AS genre_id, g.name AS genre_name, d.id AS director_id, d.name AS director_name, COUNT(l.film_id) AS count_likes " +
-                "FROM films f " +
-                "LEFT JOIN mpa m ON f.mpa_id = m.id " +
-                "LEFT JOIN film_genres fg ON f.id = fg.film_id " +
-                "LEFT JOIN genres g ON fg.genre_id = g.id " +
-                "LEFT JOIN film_directors fd ON f.id = fd.film_id " +
-                "LEFT JOIN directors d ON fd.director_id = d.id " +
-                "LEFT JOIN likes l ON f.id = l.film_id " +
-                "WHERE d.id = ? " +
-                "GROUP BY d.id, g.id " +
-                "ORDER BY count_likes";
-        return jdbcTemplate.query(sqlQuery, this::createFilm, directorId);
+        String sqlQuery = "SELECT f.id FROM film_directors fd " +
+                "JOIN films f ON f.id = fd.film_id " +
+                "WHERE fd.director_id = ? " +
+                "ORDER BY f.like_count, f.id";
+        return getFilmsByIds(jdbcTemplate.queryForList(sqlQuery, Long.class, directorId));
     }
 
     @Override
     public List<Film> getRecommendations(Long id) {
-        String sqlQuery = "SELECT l.film_id " +
-                          "FROM likes AS l " +
-                          "WHERE l.user_id = (SELECT l2.user_id " + // Поиск пользователя с похожими вкусами
-                                              "FROM likes AS l2 " +
-                                              "WHERE l2.user_id <> ? " +
-                                                "AND l2.film_id IN (SELECT l3.film_id " + // Лайки
-                                                                    "FROM likes AS l3 " +
-                                                                    "WHERE l3.user_id = ?) " +
-                                              "GROUP BY l2.user_id " +
-                                              "ORDER BY COUNT(l2.film_id) DESC " + // Сортировка по пересечениям лайков
-                                              "LIMIT 1)";
-
-        List<Long> recommendations = jdbcTemplate.queryForList(sqlQuery, Long.class, id, id);
-
-        List<Long> alreadyLiked = likeStorage.getLikedFilmsByUserId(id);
-        recommendations.removeAll(alreadyLiked);
-
-        return recommendations.stream()
-                .map(this::getFilmById)
-                .collect(Collectors.toList());
+        return getFilmsByIds(filmRecommender.recommend(id));
     }
 
     @Override
     public void remove(Long filmId) {
         jdbcTemplate.update("DELETE FROM films WHERE id = ?", filmId);
+        knownIds.removeFilm(filmId);
+        filmCache.invalidate(filmId);
+        filmLeaderboard.removeFilm(filmId);
+        filmRecommender.removeFilm(filmId);
+        filmSearchIndex.removeFilm(filmId);
+        entityVersions.filmChanged(filmId);
     }
 
     @Override
     public List<Film> findFilm(String findingSubstring, List<String> params) {
-        StringBuilder sqlQuery = new StringBuilder();
-        sqlQuery
-                .append("SELECT f.id, f.name, f.description, f.releaseDate, f.duration, m.id AS mpa_id, m.name AS mpa_name, ")
-                .append("g.id AS genre_id, g.name AS genre_name, d.id AS director_id, d.name AS director_name, COUNT(l.user_id) AS like_count ")
-                .append("FROM films f ")
-                .append("LEFT JOIN mpa m ON f.mpa_id = m.id ")
-                .append("LEFT JOIN film_genres fg ON f.id = fg.film_id ")
-                .append("LEFT JOIN genres g ON fg.genre_id = g.id ")
-                .append("LEFT JOIN film_directors fd ON f.id = fd.film_id ")
-                .append("LEFT JOIN directors d ON fd.director_id = d.id ")
-                .append("LEFT JOIN likes l ON f.id = l.film_id ");
-
-        if (params.contains("title") & params.contains("director")) {
-            sqlQuery.append("WHERE LOWER(f.name) LIKE LOWER(?) OR LOWER(d.name) LIKE LOWER(?) ")
-                    .append("GROUP BY f.id ")
-                    .append("ORDER BY like_count DESC");
-            return jdbcTemplate.query(sqlQuery.toString(), this::createFilm, String.format("%%%s%%", findingSubstring), String.format("%%%s%%", findingSubstring));
-        } else if (params.contains("title")) {
-            sqlQuery.append("WHERE LOWER(f.name) LIKE LOWER(?) ");
-        } else if (params.contains("director")) {
-            sqlQuery.append("WHERE LOWER(d.name) LIKE LOWER(?) ");
-        } else {
+        boolean byTitle = params.contains("title");
+        boolean byDirector = params.contains("director");
+        if (!byTitle && !byDirector) {
             throw new RuntimeException("Неверные параметры запроса");
         }
-        sqlQuery.append("GROUP BY f.id ")
-                .append("ORDER BY like_count DESC");
 
-        return jdbcTemplate.query(sqlQuery.toString(), this::createFilm, String.format("%%%s%%", findingSubstring));
+        List<Long> ids = new ArrayList<>(filmSearchIndex.search(findingSubstring, byTitle, byDirector));
+        ids.sort(Comparator.<Long>comparingInt(filmLeaderboard::getLikeCount).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        return getFilmsByIds(ids);
+    }
+
+    private Map<Long, Film> loadFilms(List<Long> ids) {
+        String inClause = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] params = ids.toArray();
+
+        String sqlQueryFilms = "SELECT id, name, description, releaseDate, duration, mpa_id " +
+                "FROM films " +
+                "WHERE id IN (" + inClause + ")";
+        Map<Long, Film> films = new HashMap<>();
+        jdbcTemplate.query(sqlQueryFilms, rs -> {
+            Film film = mapFilm(rs);
+            films.put(film.getId(), film);
+        }, params);
+
+        String sqlQueryGenres = "SELECT film_id, genre_id FROM film_genres WHERE film_id IN (" + inClause + ") ORDER BY genre_id";
+        jdbcTemplate.query(sqlQueryGenres, rs -> {
+            Film film = films.get(rs.getLong("film_id"));
+            Genre genre = referenceDataCache.getGenre(rs.getLong("genre_id"));
+            if (film != null && genre != null) {
+                film.getGenres().add(genre);
+            }
+        }, params);
+
+        String sqlQueryDirectors = "SELECT film_id, director_id FROM film_directors WHERE film_id IN (" + inClause + ") ORDER BY director_id";
+        jdbcTemplate.query(sqlQueryDirectors, rs -> {
+            Film film = films.get(rs.getLong("film_id"));
+            Director director = referenceDataCache.getDirector(rs.getLong("director_id"));
+            if (film != null && director != null) {
+                film.getDirectors().add(director);
+            }
+        }, params);
+
+        return films;
+    }
+
+    private Film mapFilm(ResultSet rs) throws SQLException {
+        long mpaId = rs.getLong("mpa_id");
+        Mpa mpa = referenceDataCache.getMpa(mpaId);
+        return Film.builder()
+                .id(rs.getLong("id"))
+                .name(rs.getString("name"))
+                .description(rs.getString("description"))
+                .releaseDate(rs.getDate("releasedate").toLocalDate())
+                .duration(rs.getInt("duration"))
+                .mpa(mpa != null ? mpa : Mpa.builder().id(mpaId).build())
+                .genres(new LinkedHashSet<>())
+                .directors(new LinkedHashSet<>())
+                .build();
     }
 
     private List<Film> createFilm(ResultSet rs) throws SQLException {
@@ -278,4 +396,11 @@ public class FilmDbStorage implements FilmStorage {
         };
         return resultSetExtractor.extractData(rs);
     }
+
+    private static <T> Set<Long> ids(Set<T> items, Function<T, Long> id) {
+        if (items == null) {
+            return Collections.emptySet();
+        }
+        return items.stream().map(id).collect(Collectors.toSet());
+    }
 }
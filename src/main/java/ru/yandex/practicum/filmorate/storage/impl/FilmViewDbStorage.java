@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmViewStorage;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@code film_view} keeps every film as the JSON document the API returns, so a read is a primary key lookup.
+ * Film writes replace the document; director changes delete the documents of the affected films and the next
+ * read rebuilds them. Rebuilds take a stamp before loading the film and are stored only if no invalidation
+ * happened in between and no newer document was written meanwhile, so a slow read cannot bring back a stale one.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "db", matchIfMissing = true)
+public class FilmViewDbStorage implements FilmViewStorage {
+    private static final int READ_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public FilmViewDbStorage(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Map<Long, String> getDocuments(List<Long> ids) {
+        Map<Long, String> documents = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += READ_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + READ_CHUNK_SIZE));
+            String inClause = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT film_id, document FROM film_view WHERE film_id IN (" + inClause + ")", rs -> {
+                documents.put(rs.getLong("film_id"), rs.getString("document"));
+            }, chunk.toArray());
+        }
+        return documents;
+    }
+
+    @Override
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    @Override
+    public String fill(Film film, long stamp) {
+        String document = serialize(film);
+        String sqlQuery = "MERGE INTO film_view v " +
+                "USING (SELECT id, CAST(? AS CHARACTER LARGE OBJECT) AS document FROM films WHERE id = ?) f " +
+                "ON v.film_id = f.id " +
+                "WHEN NOT MATCHED THEN INSERT (film_id, document) VALUES (f.id, f.document)";
+        lock.readLock().lock();
+        try {
+            if (invalidations.get() == stamp) {
+                jdbcTemplate.update(sqlQuery, document, film.getId());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return document;
+    }
+
+    @Override
+    public void put(Film film) {
+        String sqlQuery = "MERGE INTO film_view (film_id, document) KEY (film_id) VALUES (?, ?)";
+        jdbcTemplate.update(sqlQuery, film.getId(), serialize(film));
+    }
+
+    @Override
+    public void invalidate(List<Long> filmIds) {
+        lock.writeLock().lock();
+        try {
+            invalidations.incrementAndGet();
+            if (!filmIds.isEmpty()) {
+                List<Object[]> rows = new ArrayList<>();
+                filmIds.forEach(filmId -> rows.add(new Object[]{filmId}));
+                jdbcTemplate.batchUpdate("DELETE FROM film_view WHERE film_id = ?", rows);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private String serialize(Film film) {
+        try {
+            return objectMapper.writeValueAsString(film);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,55 +1,75 @@
 package ru.yandex.practicum.filmorate.storage.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.cache.FilmCache;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "db", matchIfMissing = true)
 @RequiredArgsConstructor
 public class GenreDbStorage implements GenreStorage {
     private final JdbcTemplate jdbcTemplate;
 
+    private final ReferenceDataCache referenceDataCache;
+
+    private final FilmCache filmCache;
+
     @Override
     public List<Genre> findAll() {
-        String sql = "SELECT * FROM genres";
-        return jdbcTemplate.query(sql, this::createGenre);
+        return referenceDataCache.getGenres();
     }
 
     @Override
     public Genre getById(Long id) {
-        String sql = "SELECT * FROM genres WHERE id = ?";
-        List<Genre> genres = jdbcTemplate.query(sql, this::createGenre, id);
-        if (genres.size() != 1) {
+        Genre genre = referenceDataCache.getGenre(id);
+        if (genre == null) {
             throw new EntityNotFoundException(String.format("Жанр с id %s отсутствует", id));
         }
-        return genres.get(0);
+        return genre;
     }
 
     @Override
     public void setFilmsGenres(Long filmId, Set<Genre> genres) {
-        String sqlQueryCleanFilmsGenres = "DELETE FROM film_genres WHERE film_id = ?";
-        String sqlQuerySetGenres = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
-        jdbcTemplate.update(sqlQueryCleanFilmsGenres, filmId);
+        String sqlQueryCurrentGenres = "SELECT genre_id FROM film_genres WHERE film_id = ?";
+        String sqlQueryRemoveGenre = "DELETE FROM film_genres WHERE film_id = ? AND genre_id = ?";
+        String sqlQuerySetGenre = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
 
+        Set<Long> current = new HashSet<>(jdbcTemplate.queryForList(sqlQueryCurrentGenres, Long.class, filmId));
+        Set<Long> target = new LinkedHashSet<>();
         if (genres != null) {
-            for (Genre genre : Set.copyOf(genres)) {
-                jdbcTemplate.update(sqlQuerySetGenres, filmId, genre.getId());
-            }
+            genres.forEach(genre -> target.add(genre.getId()));
         }
-    }
 
-    private Genre createGenre(ResultSet rs, int rowNum) throws SQLException {
-        return Genre.builder()
-                .id(rs.getLong("id"))
-                .name(rs.getString("name"))
-                .build();
+        List<Object[]> removed = current.stream()
+                .filter(genreId -> !target.contains(genreId))
+                .map(genreId -> new Object[]{filmId, genreId})
+                .collect(Collectors.toList());
+        List<Object[]> added = target.stream()
+                .filter(genreId -> !current.contains(genreId))
+                .map(genreId -> new Object[]{filmId, genreId})
+                .collect(Collectors.toList());
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
+
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate(sqlQueryRemoveGenre, removed);
+        }
+        if (!added.isEmpty()) {
+            jdbcTemplate.batchUpdate(sqlQuerySetGenre, added);
+        }
+        filmCache.invalidate(filmId);
     }
 }
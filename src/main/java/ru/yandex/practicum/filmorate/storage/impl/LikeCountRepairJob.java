@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.index.FilmLeaderboard;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@code films.like_count} is changed in the same transaction as the {@code likes} row, so it only drifts after
+ * manual edits or imports that bypass the storages. The job recounts films whose counter disagrees with
+ * {@code likes} and moves their leaderboard entries by the same correction; the popular list may reorder, so its
+ * ETag changes.
+ * <p>
+ * The leaderboard is never reloaded: like writers apply their delta after their commit, so an absolute count read
+ * from the database could already include a delta that is still on its way. Corrections are computed with the film
+ * rows locked, which orders them against concurrent counter updates, and deltas commute with the writers' deltas.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "db", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LikeCountRepairJob {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final FilmLeaderboard filmLeaderboard;
+
+    private final EntityVersions entityVersions;
+
+    @Scheduled(initialDelayString = "${filmorate.likes.repair-interval-ms:3600000}",
+            fixedDelayString = "${filmorate.likes.repair-interval-ms:3600000}")
+    public void repair() {
+        String driftedQuery = "SELECT f.id FROM films f " +
+                "WHERE f.like_count <> (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id)";
+        List<Long> drifted = jdbcTemplate.queryForList(driftedQuery, Long.class);
+        if (drifted.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> corrections = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            Map<Long, Integer> deltas = new HashMap<>();
+            for (Long filmId : drifted) {
+                List<Integer> counters = jdbcTemplate.queryForList(
+                        "SELECT like_count FROM films WHERE id = ? FOR UPDATE", Integer.class, filmId);
+                if (counters.isEmpty()) {
+                    continue;
+                }
+                int actual = Objects.requireNonNull(jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM likes WHERE film_id = ?", Integer.class, filmId));
+                int delta = actual - counters.get(0);
+                if (delta != 0) {
+                    jdbcTemplate.update("UPDATE films SET like_count = ? WHERE id = ?", actual, filmId);
+                    deltas.put(filmId, delta);
+                }
+            }
+            return deltas;
+        }));
+
+        if (!corrections.isEmpty()) {
+            log.warn("Исправлено счетчиков лайков: {}", corrections.size());
+            corrections.forEach(filmLeaderboard::changeLikes);
+            entityVersions.likesChanged();
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package ru.yandex.practicum.filmorate.storage.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.yandex.practicum.filmorate.exception.EntityAlreadyExistException;
 import ru.yandex.practicum.filmorate.storage.EventStorage;
 import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.index.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.index.FilmRecommender;
 import ru.yandex.practicum.filmorate.model.EventType;
 import ru.yandex.practicum.filmorate.model.Operation;
 
@@ -15,19 +20,35 @@ import java.sql.SQLException;
 import java.util.List;
 
 @Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "db", matchIfMissing = true)
 @RequiredArgsConstructor
 public class LikeDbStorage implements LikeStorage {
     private final JdbcTemplate jdbcTemplate;
 
+    private final TransactionTemplate transactionTemplate;
+
     private final EventStorage eventStorage;
 
+    private final FilmLeaderboard filmLeaderboard;
+
+    private final FilmRecommender filmRecommender;
+
+    private final EntityVersions entityVersions;
+
     @Override
     public void addLike(Long filmId, Long userId) {
-        if (likeExists(filmId, userId)) {
-            eventStorage.addEvent(userId, filmId, EventType.LIKE, Operation.ADD);
-        } else {
-            String sqlQuery = "INSERT INTO likes (user_id, film_id) VALUES (?, ?)";
-            jdbcTemplate.update(sqlQuery, userId, filmId);
+        // Liking twice is not an error, but only a newly inserted row reaches the indexes and the feed.
+        boolean inserted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!insertLike(filmId, userId)) {
+                return false;
+            }
+            changeLikeCount(filmId, 1);
+            return true;
+        }));
+        if (inserted) {
+            filmLeaderboard.addLike(filmId);
+            filmRecommender.addLike(filmId, userId);
+            entityVersions.likesChanged();
             eventStorage.addEvent(userId, filmId, EventType.LIKE, Operation.ADD);
         }
     }
@@ -35,60 +56,51 @@ public class LikeDbStorage implements LikeStorage {
     @Override
     public void removeLike(Long filmId, Long userId) {
         String sqlQuery = "DELETE FROM likes WHERE user_id = ? AND film_id = ?";
-        if (!likeExists(filmId, userId)) {
-            throw new EntityAlreadyExistException("Этот пользователь не ставил лайк");
-        }
-        jdbcTemplate.update(sqlQuery, userId, filmId);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (jdbcTemplate.update(sqlQuery, userId, filmId) == 0) {
+                throw new EntityAlreadyExistException("Этот пользователь не ставил лайк");
+            }
+            changeLikeCount(filmId, -1);
+        });
+        filmLeaderboard.removeLike(filmId);
+        filmRecommender.removeLike(filmId, userId);
+        entityVersions.likesChanged();
         eventStorage.addEvent(userId, filmId, EventType.LIKE, Operation.REMOVE);
-
     }
 
     @Override
-    public List<Long> getPopularFilms(Integer limit, Long genreId, Integer year) {
-        StringBuilder sqlQuery = new StringBuilder();
-        sqlQuery
-                .append("SELECT f.id AS film_id, COUNT(l.user_id) AS count_likes FROM films AS f ")
-                .append("LEFT JOIN likes AS l ON l.film_id = f.id ");
-        if (genreId != null && year != null) {
-            sqlQuery
-                    .append("RIGHT JOIN film_genres AS fg ON fg.film_id = f.id ")
-                    .append("WHERE fg.genre_id = ")
-                    .append(genreId)
-                    .append("AND EXTRACT(YEAR FROM f.releaseDate) = ")
-                    .append(year);
-        } else if (genreId != null) {
-            sqlQuery
-                    .append("RIGHT JOIN film_genres AS fg ON fg.film_id = f.id ")
-                    .append("WHERE fg.genre_id = ")
-                    .append(genreId);
-        } else if (year != null) {
-            sqlQuery
-                    .append("WHERE EXTRACT(YEAR FROM f.releaseDate) = ")
-                    .append(year);
+    public void removeUserLikes(Long userId) {
+        List<Long> filmIds = transactionTemplate.execute(status -> {
+            List<Long> likedFilmIds = jdbcTemplate.queryForList(
+                    "SELECT film_id FROM likes WHERE user_id = ? FOR UPDATE", Long.class, userId);
+            jdbcTemplate.update("UPDATE films SET like_count = like_count - 1 " +
+                    "WHERE id IN (SELECT film_id FROM likes WHERE user_id = ?)", userId);
+            jdbcTemplate.update("DELETE FROM likes WHERE user_id = ?", userId);
+            return likedFilmIds;
+        });
+        for (Long filmId : filmIds) {
+            filmLeaderboard.removeLike(filmId);
+            filmRecommender.removeLike(filmId, userId);
         }
+        if (!filmIds.isEmpty()) {
+            entityVersions.likesChanged();
+        }
+    }
 
-        sqlQuery
-                .append("GROUP BY f.id ORDER BY count_likes DESC LIMIT ")
-                .append(limit);
-
-        return jdbcTemplate.query(sqlQuery.toString(), this::getId);
+    @Override
+    public List<Long> getPopularFilms(Integer limit, Long genreId, Integer year) {
+        return filmLeaderboard.getTop(limit, genreId, year);
     }
 
     @Override
     public List<Long> getCommonFilmIds(Long userId, Long friendId) {
-        String sqlQuery = "SELECT shared_likes.film_id, all_likes.total_like_count " +
-                "FROM (SELECT film_id " +
-                "    FROM likes " +
-                "    WHERE user_id = ? " +
-                "    INTERSECT " +
-                "    SELECT film_id " +
-                "    FROM likes " +
-                "    WHERE user_id = ?) AS shared_likes " +
-                "JOIN (SELECT film_id, COUNT(*) AS total_like_count " +
-                "    FROM likes " +
-                "    GROUP BY film_id) AS all_likes ON shared_likes.film_id = all_likes.film_id " +
-                "ORDER BY all_likes.total_like_count DESC";
-        return jdbcTemplate.query(sqlQuery, this::getId, userId, friendId);
+        String sqlQuery = "SELECT f.id AS film_id " +
+                "FROM likes ul " +
+                "JOIN likes fl ON fl.film_id = ul.film_id AND fl.user_id = ? " +
+                "JOIN films f ON f.id = ul.film_id " +
+                "WHERE ul.user_id = ? " +
+                "ORDER BY f.like_count DESC, f.id";
+        return jdbcTemplate.query(sqlQuery, this::getId, friendId, userId);
     }
 
     @Override
@@ -97,10 +109,21 @@ public class LikeDbStorage implements LikeStorage {
         return jdbcTemplate.queryForList(sqlQuery, Long.class, id);
     }
 
-    private boolean likeExists(Long filmId, Long userId) {
-        String sqlQuery = "SELECT * FROM likes WHERE user_id = ? AND film_id = ?";
-        SqlRowSet sqlRowSet = jdbcTemplate.queryForRowSet(sqlQuery, userId, filmId);
-        return sqlRowSet.next();
+    private boolean insertLike(Long filmId, Long userId) {
+        String sqlQuery = "MERGE INTO likes l " +
+                "USING (SELECT CAST(? AS BIGINT) AS user_id, CAST(? AS BIGINT) AS film_id) v " +
+                "ON l.user_id = v.user_id AND l.film_id = v.film_id " +
+                "WHEN NOT MATCHED THEN INSERT (user_id, film_id) VALUES (v.user_id, v.film_id)";
+        try {
+            return jdbcTemplate.update(sqlQuery, userId, filmId) > 0;
+        } catch (DuplicateKeyException e) {
+            // A concurrent request inserted the same like between the match and the insert.
+            return false;
+        }
+    }
+
+    private void changeLikeCount(Long filmId, int delta) {
+        jdbcTemplate.update("UPDATE films SET like_count = like_count + ? WHERE id = ?", delta, filmId);
     }
 
     private Long getId(ResultSet rs, int rowNum) throws SQLException {
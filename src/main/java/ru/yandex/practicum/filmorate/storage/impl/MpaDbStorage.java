@@ -1,41 +1,32 @@
 package ru.yandex.practicum.filmorate.storage.impl;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.storage.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.List;
 
 @Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "db", matchIfMissing = true)
 @RequiredArgsConstructor
 public class MpaDbStorage implements MpaStorage {
-    private final JdbcTemplate jdbcTemplate;
+    private final ReferenceDataCache referenceDataCache;
 
     @Override
     public List<Mpa> findAll() {
-        String sql = "SELECT * FROM mpa";
-        return jdbcTemplate.query(sql, MpaDbStorage::createMpa);
+        return referenceDataCache.getMpa();
     }
 
     @Override
     public Mpa getById(Long id) {
-        String sql = "SELECT * FROM mpa WHERE id = ?";
-        List<Mpa> mpas = jdbcTemplate.query(sql, MpaDbStorage::createMpa, id);
-        if (mpas.size() != 1) {
+        Mpa mpa = referenceDataCache.getMpa(id);
+        if (mpa == null) {
             throw new EntityNotFoundException(String.format("Рейтинг с id %s отсутствует", id));
         }
-        return mpas.get(0);
-    }
-
-    static Mpa createMpa(ResultSet rs, int rowNum) throws SQLException {
-        return Mpa.builder()
-                .id(rs.getLong("id"))
-                .name(rs.getString("name"))
-                .build();
+        return mpa;
     }
 }
@@ -1,10 +1,13 @@
 package ru.yandex.practicum.filmorate.storage.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.exception.EntityAlreadyExistException;
 import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
 import ru.yandex.practicum.filmorate.model.Review;
 import ru.yandex.practicum.filmorate.storage.EventStorage;
@@ -12,22 +15,27 @@ import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.ReviewStorage;
 import ru.yandex.practicum.filmorate.storage.ReviewLikesStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.cache.ReviewTopCache;
 import ru.yandex.practicum.filmorate.model.EventType;
 import ru.yandex.practicum.filmorate.model.Operation;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 @Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "db", matchIfMissing = true)
 @RequiredArgsConstructor
 public class ReviewDbStorage implements ReviewStorage {
     private final JdbcTemplate jdbcTemplate;
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
     private final ReviewLikesStorage reviewLikesStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final ReviewTopCache reviewTopCache;
 
     private final EventStorage eventStorage;
 
@@ -49,7 +57,9 @@ public class ReviewDbStorage implements ReviewStorage {
         }, keyHolder);
         Long reviewId = Objects.requireNonNull(keyHolder.getKey()).longValue();
         eventStorage.addEvent(review.getUserId(), reviewId, EventType.REVIEW, Operation.ADD);
-        return getById(reviewId);
+        Review createdReview = getById(reviewId);
+        reviewTopCache.putReview(createdReview);
+        return createdReview;
     }
 
     @Override
@@ -58,6 +68,7 @@ public class ReviewDbStorage implements ReviewStorage {
         String sqlQuery = "UPDATE reviews SET is_positive = ?, content = ? WHERE id =?";
         jdbcTemplate.update(sqlQuery, review.getIsPositive(), review.getContent(), review.getReviewId());
         Review updatedReview = getById(review.getReviewId());
+        reviewTopCache.putReview(updatedReview);
         eventStorage.addEvent(updatedReview.getUserId(), updatedReview.getReviewId(), EventType.REVIEW, Operation.UPDATE);
         return updatedReview;
     }
@@ -66,6 +77,7 @@ public class ReviewDbStorage implements ReviewStorage {
     public void removeReview(Long id) {
         Review review = getById(id);
         jdbcTemplate.update("DELETE FROM reviews WHERE id = ?", id);
+        reviewTopCache.removeReview(review);
         eventStorage.addEvent(review.getUserId(),review.getReviewId(), EventType.REVIEW, Operation.REMOVE);
     }
 
@@ -81,17 +93,37 @@ public class ReviewDbStorage implements ReviewStorage {
 
     @Override
     public List<Review> getReviewsByFilmId(Long id, Integer count) {
+        int topSize = reviewTopCache.getTopSize();
+        List<Review> top = reviewTopCache.get(id);
+        if (top == null) {
+            long stamp = reviewTopCache.stamp();
+            top = queryTop(id, topSize);
+            reviewTopCache.put(id, top, stamp);
+        }
+        if (count <= top.size()) {
+            return new ArrayList<>(top.subList(0, count));
+        }
+
+        List<Review> reviews = new ArrayList<>(top);
+        if (top.size() == topSize) {
+            Review last = top.get(top.size() - 1);
+            reviews.addAll(getReviewsPage(id, last.getUseful(), last.getReviewId(), count - top.size()));
+        }
+        return reviews;
+    }
+
+    private List<Review> queryTop(Long id, int count) {
         StringBuilder sqlQuery = new StringBuilder();
         sqlQuery.append("SELECT * FROM reviews ");
         List<Review> reviews;
         if (id != null) {
             sqlQuery.append("WHERE film_id = ? ")
-                    .append("ORDER BY useful DESC ")
+                    .append("ORDER BY useful DESC, id ")
                     .append("LIMIT ?");
 
             reviews = jdbcTemplate.query(sqlQuery.toString(), this::createReview, id, count);
         } else {
-            sqlQuery.append("ORDER BY useful DESC ")
+            sqlQuery.append("ORDER BY useful DESC, id ")
                     .append("LIMIT ?");
 
             reviews = jdbcTemplate.query(sqlQuery.toString(), this::createReview, count);
@@ -100,57 +132,101 @@ public class ReviewDbStorage implements ReviewStorage {
     }
 
     @Override
-    public void addLike(Long id, Long userId) {
-        userStorage.getUserById(userId);
-        boolean isChangeLike = reviewLikesStorage.addLike(id, userId);
-        String sqlQuery;
-        int useful;
-        if (!isChangeLike) {
-            useful = getById(id).getUseful() + 1;
-        } else {
-            useful = getById(id).getUseful() + 2;
+    public List<Review> getReviewsPage(Long filmId, Integer afterUseful, Long afterId, int limit) {
+        StringBuilder sqlQuery = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        sqlQuery.append("SELECT * FROM reviews WHERE 1 = 1 ");
+        if (filmId != null) {
+            sqlQuery.append("AND film_id = ? ");
+            params.add(filmId);
         }
-        sqlQuery = "UPDATE reviews SET useful = ? WHERE id = ?";
-        jdbcTemplate.update(sqlQuery, useful, id);
+        if (afterUseful != null) {
+            sqlQuery.append("AND (useful < ? OR (useful = ? AND id > ?)) ");
+            params.add(afterUseful);
+            params.add(afterUseful);
+            params.add(afterId);
+        }
+        sqlQuery.append("ORDER BY useful DESC, id ")
+                .append("LIMIT ?");
+        params.add(limit);
+
+        return jdbcTemplate.query(sqlQuery.toString(), this::createReview, params.toArray());
+    }
 
+    @Override
+    public void addLike(Long id, Long userId) {
+        vote(id, userId, true);
     }
 
     @Override
     public void addDislike(Long id, Long userId) {
-        userStorage.getUserById(userId);
-        boolean isChangeLike = reviewLikesStorage.addDislike(id, userId);
-        String sqlQuery;
-        int useful;
-        if (!isChangeLike) {
-            useful = getById(id).getUseful() - 1;
-        } else {
-            useful = getById(id).getUseful() - 2;
-        }
-        sqlQuery = "UPDATE reviews SET useful = ? WHERE id = ?";
-        jdbcTemplate.update(sqlQuery, useful, id);
+        vote(id, userId, false);
     }
 
     @Override
     public void removeLike(Long id, Long userId) {
-        userStorage.getUserById(userId);
-        reviewLikesStorage.removeLike(id, userId);
-        Integer useful = getById(id).getUseful() - 1;
-        String sqlQuery = "UPDATE reviews SET useful = ? WHERE id = ?";
-        jdbcTemplate.update(sqlQuery, useful, id);
+        removeVote(id, userId, true);
     }
 
     @Override
     public void removeDislike(Long id, Long userId) {
-        userStorage.getUserById(userId);
-        reviewLikesStorage.removeDislike(id, userId);
-        Integer useful = getById(id).getUseful() + 1;
-        String sqlQuery = "UPDATE reviews SET useful = ? WHERE id = ?";
-        jdbcTemplate.update(sqlQuery, useful, id);
+        removeVote(id, userId, false);
+    }
+
+    private void vote(Long id, Long userId, boolean isLike) {
+        userStorage.checkExists(userId);
+        transactionTemplate.executeWithoutResult(status -> {
+            Review review = lockReview(id);
+            Boolean oldVote = reviewLikesStorage.getVote(id, userId);
+            if (oldVote != null && oldVote == isLike) {
+                throw new EntityAlreadyExistException("Пользователь уже оценил этот отзыв.");
+            }
+            reviewLikesStorage.setVote(id, userId, isLike);
+            int delta = oldVote == null ? 1 : 2;
+            changeUseful(review, isLike ? delta : -delta);
+        });
+        publishVote(id);
+    }
+
+    private void removeVote(Long id, Long userId, boolean isLike) {
+        userStorage.checkExists(userId);
+        transactionTemplate.executeWithoutResult(status -> {
+            Review review = lockReview(id);
+            Boolean oldVote = reviewLikesStorage.getVote(id, userId);
+            if (oldVote == null || oldVote != isLike) {
+                throw new EntityAlreadyExistException("Пользователь еще не поставил оценку отзыву.");
+            }
+            reviewLikesStorage.removeVote(id, userId);
+            changeUseful(review, isLike ? -1 : 1);
+        });
+        publishVote(id);
+    }
+
+    private Review lockReview(Long id) {
+        String sqlQuery = "SELECT * FROM reviews WHERE id = ? FOR UPDATE";
+        List<Review> reviews = jdbcTemplate.query(sqlQuery, this::createReview, id);
+        if (reviews.isEmpty()) {
+            throw new EntityNotFoundException(String.format("Отзыв с id %s отсутствует.", id));
+        }
+        return reviews.get(0);
+    }
+
+    private void changeUseful(Review review, int delta) {
+        jdbcTemplate.update("UPDATE reviews SET useful = useful + ? WHERE id = ?", delta, review.getReviewId());
+    }
+
+    private void publishVote(Long id) {
+        // Only committed votes reach the cache; a rolled back one leaves it untouched.
+        long stamp = reviewTopCache.stamp();
+        List<Review> reviews = jdbcTemplate.query("SELECT * FROM reviews WHERE id = ?", this::createReview, id);
+        if (!reviews.isEmpty()) {
+            reviewTopCache.refreshReview(reviews.get(0), stamp);
+        }
     }
 
     private void checkDataExist(Long userId, Long filmId) {
-        userStorage.getUserById(userId);
-        filmStorage.getFilmById(filmId);
+        userStorage.checkExists(userId);
+        filmStorage.checkExists(filmId);
     }
 
     private Review createReview(ResultSet rs, int rowNum) throws SQLException {
@@ -1,16 +1,20 @@
 package ru.yandex.practicum.filmorate.storage.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.EntityAlreadyExistException;
 import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.EventStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.index.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.index.KnownIds;
 import ru.yandex.practicum.filmorate.model.EventType;
 import ru.yandex.practicum.filmorate.model.Operation;
 
@@ -18,22 +22,59 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "db", matchIfMissing = true)
 @RequiredArgsConstructor
 public class UserDbStorage implements UserStorage {
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final int HYDRATE_CHUNK_SIZE = 1000;
+
     private final JdbcTemplate jdbcTemplate;
 
     private final EventStorage eventStorage;
 
+    private final LikeStorage likeStorage;
+
+    private final FriendGraph friendGraph;
+
+    private final KnownIds knownIds;
+
+    private final EntityVersions entityVersions;
+
     @Override
     public List<User> findAll() {
         String sqlQuery = "SELECT * FROM users";
         return jdbcTemplate.query(sqlQuery, this::createUser);
     }
 
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        String sqlQuery = "SELECT * FROM users ORDER BY id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(sqlQuery);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            return stmt;
+        }, rs -> {
+            consumer.accept(createUser(rs, 0));
+        });
+    }
+
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        String sqlQuery = "SELECT * FROM users WHERE id > ? ORDER BY id LIMIT ?";
+        return jdbcTemplate.query(sqlQuery, this::createUser, afterId, limit);
+    }
+
     @Override
     public User create(User user) {
         String sqlQuery = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
@@ -47,14 +88,18 @@ public class UserDbStorage implements UserStorage {
             stmt.setDate(4, Date.valueOf(user.getBirthday()));
             return stmt;
         }, keyHolder);
-        return getUserById(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        Long userId = Objects.requireNonNull(keyHolder.getKey()).longValue();
+        knownIds.addUser(userId);
+        return getUserById(userId);
     }
 
     @Override
     public User update(User user) {
         String sqlQuery = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE id = ?";
         jdbcTemplate.update(sqlQuery, user.getEmail(), user.getLogin(), user.getName(), user.getBirthday(), user.getId());
-        return getUserById(user.getId());
+        User updatedUser = getUserById(user.getId());
+        entityVersions.userChanged(user.getId());
+        return updatedUser;
     }
 
     @Override
@@ -68,20 +113,45 @@ public class UserDbStorage implements UserStorage {
     }
 
     @Override
-    public List<User> getFriends(Long id) {
-        String sqlQuery = "SELECT * FROM users WHERE id IN (SELECT friend_id FROM friends WHERE user_id = ?)";
+    public List<User> getUsersByIds(List<Long> ids) {
+        Map<Long, User> users = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += HYDRATE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + HYDRATE_CHUNK_SIZE));
+            String inClause = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            String sqlQuery = "SELECT * FROM users WHERE id IN (" + inClause + ")";
+            jdbcTemplate.query(sqlQuery, rs -> {
+                User user = createUser(rs, 0);
+                users.put(user.getId(), user);
+            }, chunk.toArray());
+        }
+        return ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
 
-        return jdbcTemplate.query(sqlQuery, this::createUser, id);
+    @Override
+    public boolean exists(Long id) {
+        return knownIds.mightContainUser(id)
+                && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM users WHERE id = ?)", Boolean.class, id));
+    }
+
+    @Override
+    public List<User> getFriends(Long id) {
+        return getUsersByIds(toList(friendGraph.getFriends(id)));
     }
 
     @Override
     public void addFriend(Long id, Long friendId) {
         String sqlQuery = "INSERT INTO friends (user_id, friend_id) VALUES (?, ?)";
 
-        if (friendshipExists(id, friendId)) {
+        if (friendGraph.isFriend(id, friendId)) {
             throw new EntityAlreadyExistException("Дружба уже существует");
         }
         jdbcTemplate.update(sqlQuery, id, friendId);
+        friendGraph.addFriend(id, friendId);
+        entityVersions.friendsChanged(id);
         eventStorage.addEvent(id, friendId, EventType.FRIEND, Operation.ADD);
     }
 
@@ -89,20 +159,29 @@ public class UserDbStorage implements UserStorage {
     public void removeFriend(Long id, Long friendId) {
         String sqlQuery = "DELETE FROM friends WHERE user_id = ? AND friend_id = ?";
         jdbcTemplate.update(sqlQuery, id, friendId);
+        friendGraph.removeFriend(id, friendId);
+        entityVersions.friendsChanged(id);
         eventStorage.addEvent(id, friendId, EventType.FRIEND, Operation.REMOVE);
     }
 
     @Override
     public List<User> getCommonFriends(Long id, Long otherId) {
-        String sqlQuery = "SELECT * FROM users WHERE id IN (SELECT friend_id FROM friends WHERE user_id = ? " +
-                "INTERSECT SELECT friend_id FROM friends WHERE user_id = ?)";
+        return getUsersByIds(toList(friendGraph.getCommonFriends(id, otherId)));
+    }
 
-        return jdbcTemplate.query(sqlQuery, this::createUser, id, otherId);
+    @Override
+    public List<User> getFriendSuggestions(Long id, int limit) {
+        return getUsersByIds(friendGraph.suggest(id, limit));
     }
 
     @Override
     public void remove(Long userId) {
+        likeStorage.removeUserLikes(userId);
+        eventStorage.flush();
         jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        knownIds.removeUser(userId);
+        friendGraph.removeUser(userId);
+        entityVersions.userChanged(userId);
     }
 
     private User createUser(ResultSet rs, int rowNum) throws SQLException {
@@ -115,9 +194,7 @@ public class UserDbStorage implements UserStorage {
                 .build();
     }
 
-    private boolean friendshipExists(Long userId, Long friendId) {
-        String sqlQuery = "SELECT * FROM friends WHERE user_id = ? AND friend_id = ?";
-        SqlRowSet sqlRowSet = jdbcTemplate.queryForRowSet(sqlQuery, userId, friendId);
-        return sqlRowSet.next();
+    private static List<Long> toList(long[] ids) {
+        return Arrays.stream(ids).boxed().collect(Collectors.toList());
     }
 }
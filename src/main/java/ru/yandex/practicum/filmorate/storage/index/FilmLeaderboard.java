@@ -0,0 +1,216 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Like counters of all films kept in memory and ordered per (genre, year) bucket.
+ * Every film sits in the "any genre, any year" bucket, in its year bucket and in one bucket
+ * per genre with and without the year, so a top-K request is a walk over the head of one sorted set.
+ */
+@Component
+@RequiredArgsConstructor
+public class FilmLeaderboard {
+    private static final long ANY_GENRE = 0;
+
+    private static final int ANY_YEAR = 0;
+
+    private static final long MAX_GENRE = Long.MAX_VALUE >>> 16;
+
+    private static final int MAX_YEAR = 0xFFFF;
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt((Entry entry) -> entry.likes).reversed()
+            .thenComparingLong(entry -> entry.filmId);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private final Map<Long, NavigableSet<Entry>> buckets = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void load() {
+        Map<Long, List<Long>> filmGenres = new HashMap<>();
+        jdbcTemplate.query("SELECT film_id, genre_id FROM film_genres", rs -> {
+            filmGenres.computeIfAbsent(rs.getLong("film_id"), id -> new ArrayList<>()).add(rs.getLong("genre_id"));
+        });
+
+        String sqlQuery = "SELECT id, EXTRACT(YEAR FROM releaseDate) AS release_year, like_count FROM films";
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            buckets.clear();
+            jdbcTemplate.query(sqlQuery, rs -> {
+                long filmId = rs.getLong("id");
+                List<Long> genres = filmGenres.getOrDefault(filmId, List.of());
+                Entry entry = new Entry(filmId, rs.getInt("release_year"), toArray(genres));
+                entry.likes = rs.getInt("like_count");
+                insert(entry);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> getTop(int limit, Long genreId, Integer year) {
+        // Ids and years that cannot be packed into a key have no films; they must not fall into another bucket.
+        if ((genreId != null && !isGenre(genreId)) || (year != null && !isYear(year))) {
+            return new ArrayList<>();
+        }
+        long key = bucketKey(genreId == null ? ANY_GENRE : genreId, year == null ? ANY_YEAR : year);
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> bucket = buckets.get(key);
+            if (bucket == null) {
+                return new ArrayList<>();
+            }
+            List<Long> top = new ArrayList<>(Math.max(0, Math.min(limit, bucket.size())));
+            Iterator<Entry> iterator = bucket.iterator();
+            while (top.size() < limit && iterator.hasNext()) {
+                top.add(iterator.next().filmId);
+            }
+            return top;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getLikeCount(Long filmId) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(filmId);
+            return entry == null ? 0 : entry.likes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void addLike(Long filmId) {
+        changeLikes(filmId, 1);
+    }
+
+    public void removeLike(Long filmId) {
+        changeLikes(filmId, -1);
+    }
+
+    public void changeLikes(Long filmId, int delta) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(filmId);
+            if (entry == null) {
+                return;
+            }
+            delete(entry);
+            entry.likes = Math.max(0, entry.likes + delta);
+            insert(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putFilm(Film film) {
+        long[] genres = film.getGenres() == null ? new long[0] : film.getGenres().stream()
+                .mapToLong(Genre::getId)
+                .toArray();
+        Entry entry = new Entry(film.getId(), film.getReleaseDate().getYear(), genres);
+
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.get(film.getId());
+            if (previous != null) {
+                delete(previous);
+                entry.likes = previous.likes;
+            }
+            insert(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFilm(Long filmId) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(filmId);
+            if (entry != null) {
+                delete(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(Entry entry) {
+        entries.put(entry.filmId, entry);
+        for (long key : entry.bucketKeys) {
+            buckets.computeIfAbsent(key, k -> new TreeSet<>(ORDER)).add(entry);
+        }
+    }
+
+    private void delete(Entry entry) {
+        entries.remove(entry.filmId);
+        for (long key : entry.bucketKeys) {
+            NavigableSet<Entry> bucket = buckets.get(key);
+            bucket.remove(entry);
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    private static long bucketKey(long genreId, int year) {
+        return genreId << 16 | year;
+    }
+
+    private static boolean isGenre(long genreId) {
+        return genreId > ANY_GENRE && genreId <= MAX_GENRE;
+    }
+
+    private static boolean isYear(int year) {
+        return year > ANY_YEAR && year <= MAX_YEAR;
+    }
+
+    private static long[] toArray(List<Long> values) {
+        return values.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static final class Entry {
+        private final long filmId;
+        private final long[] bucketKeys;
+        private int likes;
+
+        private Entry(long filmId, int year, long[] genres) {
+            this.filmId = filmId;
+            List<Long> keys = new ArrayList<>();
+            keys.add(bucketKey(ANY_GENRE, ANY_YEAR));
+            if (isYear(year)) {
+                keys.add(bucketKey(ANY_GENRE, year));
+            }
+            for (long genreId : genres) {
+                if (isGenre(genreId)) {
+                    keys.add(bucketKey(genreId, ANY_YEAR));
+                    if (isYear(year)) {
+                        keys.add(bucketKey(genreId, year));
+                    }
+                }
+            }
+            this.bucketKeys = toArray(keys);
+        }
+    }
+}
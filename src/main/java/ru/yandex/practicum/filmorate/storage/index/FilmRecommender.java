@@ -0,0 +1,163 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * User-based collaborative filtering over the like matrix held in memory.
+ * Rows (films liked by a user) and columns (users who liked a film) are sorted {@code long[]}
+ * replaced copy-on-write, so readers never lock. Neighbours are ranked by Jaccard similarity of
+ * their likes and every film they liked is scored by the sum of similarities of its likers.
+ * Neighbour search is budgeted like friend suggestions: at most {@code max-fanout} likers of each liked film
+ * are scanned and at most {@code max-candidates} distinct users are considered, so a popular film does not
+ * make a request walk the whole like matrix.
+ */
+@Component
+@RequiredArgsConstructor
+public class FilmRecommender {
+    private static final long[] EMPTY = new long[0];
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, long[]> filmsByUser = new ConcurrentHashMap<>();
+
+    private final Map<Long, long[]> usersByFilm = new ConcurrentHashMap<>();
+
+    @Value("${filmorate.recommendations.neighbours:10}")
+    private int neighbours = 10;
+
+    @Value("${filmorate.recommendations.max-fanout:1000}")
+    private int maxFanout = 1000;
+
+    @Value("${filmorate.recommendations.max-candidates:10000}")
+    private int maxCandidates = 10000;
+
+    @PostConstruct
+    public void load() {
+        Map<Long, List<Long>> films = new HashMap<>();
+        Map<Long, List<Long>> users = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, film_id FROM likes", rs -> {
+            long userId = rs.getLong("user_id");
+            long filmId = rs.getLong("film_id");
+            films.computeIfAbsent(userId, id -> new ArrayList<>()).add(filmId);
+            users.computeIfAbsent(filmId, id -> new ArrayList<>()).add(userId);
+        });
+        filmsByUser.clear();
+        usersByFilm.clear();
+        films.forEach((userId, ids) -> filmsByUser.put(userId, SortedLongArrays.toSortedArray(ids)));
+        users.forEach((filmId, ids) -> usersByFilm.put(filmId, SortedLongArrays.toSortedArray(ids)));
+    }
+
+    public List<Long> recommend(Long userId) {
+        long[] liked = filmsByUser.getOrDefault(userId, EMPTY);
+        if (liked.length == 0) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Integer> overlaps = new HashMap<>();
+        for (long filmId : liked) {
+            long[] likers = usersByFilm.getOrDefault(filmId, EMPTY);
+            for (int i = 0; i < Math.min(likers.length, maxFanout); i++) {
+                long otherId = likers[i];
+                if (otherId == userId) {
+                    continue;
+                }
+                if (overlaps.size() < maxCandidates) {
+                    overlaps.merge(otherId, 1, Integer::sum);
+                } else {
+                    overlaps.computeIfPresent(otherId, (id, overlap) -> overlap + 1);
+                }
+            }
+        }
+
+        PriorityQueue<Neighbour> nearest = new PriorityQueue<>(Neighbour.ORDER);
+        overlaps.forEach((otherId, overlap) -> {
+            int otherSize = filmsByUser.getOrDefault(otherId, EMPTY).length;
+            double similarity = (double) overlap / (liked.length + otherSize - overlap);
+            nearest.add(new Neighbour(otherId, similarity));
+            if (nearest.size() > neighbours) {
+                nearest.poll();
+            }
+        });
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (Neighbour neighbour : nearest) {
+            for (long filmId : filmsByUser.getOrDefault(neighbour.userId, EMPTY)) {
+                if (Arrays.binarySearch(liked, filmId) < 0) {
+                    scores.merge(filmId, neighbour.similarity, Double::sum);
+                }
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    public long[] getLikedFilms(Long userId) {
+        return filmsByUser.getOrDefault(userId, EMPTY);
+    }
+
+    public boolean hasLike(Long filmId, Long userId) {
+        return Arrays.binarySearch(getLikedFilms(userId), filmId) >= 0;
+    }
+
+    public boolean addLike(Long filmId, Long userId) {
+        boolean[] added = new boolean[1];
+        filmsByUser.compute(userId, (id, ids) -> {
+            long[] result = SortedLongArrays.insert(ids, filmId);
+            added[0] = result != ids;
+            return result;
+        });
+        usersByFilm.compute(filmId, (id, ids) -> SortedLongArrays.insert(ids, userId));
+        return added[0];
+    }
+
+    public boolean removeLike(Long filmId, Long userId) {
+        boolean[] removed = new boolean[1];
+        filmsByUser.computeIfPresent(userId, (id, ids) -> {
+            long[] result = SortedLongArrays.delete(ids, filmId);
+            removed[0] = result != ids;
+            return result;
+        });
+        usersByFilm.computeIfPresent(filmId, (id, ids) -> SortedLongArrays.delete(ids, userId));
+        return removed[0];
+    }
+
+    public void removeFilm(Long filmId) {
+        long[] users = usersByFilm.remove(filmId);
+        if (users != null) {
+            for (long userId : users) {
+                filmsByUser.computeIfPresent(userId, (id, ids) -> SortedLongArrays.delete(ids, filmId));
+            }
+        }
+    }
+
+    private static final class Neighbour {
+        private static final Comparator<Neighbour> ORDER = Comparator.comparingDouble((Neighbour n) -> n.similarity)
+                .thenComparing(n -> n.userId, Comparator.reverseOrder());
+
+        private final long userId;
+        private final double similarity;
+
+        private Neighbour(long userId, double similarity) {
+            this.userId = userId;
+            this.similarity = similarity;
+        }
+    }
+}
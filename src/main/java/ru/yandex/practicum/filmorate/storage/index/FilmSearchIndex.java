@@ -0,0 +1,257 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram inverted index over film titles and director names.
+ * Posting lists are sorted {@code long[]} of ids; a query is answered by intersecting the lists of
+ * its trigrams and confirming the substring on the candidates, which gives the same matches as
+ * {@code LOWER(name) LIKE LOWER('%query%')}. Queries shorter than a trigram scan the names.
+ */
+@Component
+@RequiredArgsConstructor
+public class FilmSearchIndex {
+    private static final int GRAM = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, String> titles = new HashMap<>();
+
+    private final Map<Long, long[]> titleGrams = new HashMap<>();
+
+    private final Map<Long, String> directorNames = new HashMap<>();
+
+    private final Map<Long, long[]> directorGrams = new HashMap<>();
+
+    private final Map<Long, long[]> filmDirectors = new HashMap<>();
+
+    private final Map<Long, Set<Long>> directorFilms = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            jdbcTemplate.query("SELECT id, name FROM directors", rs -> {
+                putDirectorName(rs.getLong("id"), rs.getString("name"));
+            });
+            jdbcTemplate.query("SELECT id, name FROM films", rs -> {
+                putTitle(rs.getLong("id"), rs.getString("name"));
+            });
+            Map<Long, List<Long>> directors = new HashMap<>();
+            jdbcTemplate.query("SELECT film_id, director_id FROM film_directors", rs -> {
+                directors.computeIfAbsent(rs.getLong("film_id"), id -> new ArrayList<>()).add(rs.getLong("director_id"));
+            });
+            directors.forEach((filmId, ids) -> putFilmDirectors(filmId, ids.stream().mapToLong(Long::longValue).toArray()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Set<Long> search(String query, boolean byTitle, boolean byDirector) {
+        String text = normalize(query);
+        Set<Long> filmIds = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            if (byTitle) {
+                filmIds.addAll(match(text, titleGrams, titles));
+            }
+            if (byDirector) {
+                for (Long directorId : match(text, directorGrams, directorNames)) {
+                    filmIds.addAll(directorFilms.getOrDefault(directorId, Set.of()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return filmIds;
+    }
+
+    public void putFilm(Film film) {
+        long[] directorIds = film.getDirectors() == null ? new long[0] : film.getDirectors().stream()
+                .mapToLong(Director::getId)
+                .toArray();
+        lock.writeLock().lock();
+        try {
+            if (film.getDirectors() != null) {
+                for (Director director : film.getDirectors()) {
+                    if (!directorNames.containsKey(director.getId()) && director.getName() != null) {
+                        putDirectorName(director.getId(), director.getName());
+                    }
+                }
+            }
+            putTitle(film.getId(), film.getName());
+            putFilmDirectors(film.getId(), directorIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFilm(Long filmId) {
+        lock.writeLock().lock();
+        try {
+            removeTitle(filmId);
+            putFilmDirectors(filmId, new long[0]);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putDirector(Director director) {
+        lock.writeLock().lock();
+        try {
+            putDirectorName(director.getId(), director.getName());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeDirector(Long directorId) {
+        lock.writeLock().lock();
+        try {
+            String name = directorNames.remove(directorId);
+            if (name != null) {
+                unindex(directorGrams, grams(name), directorId);
+            }
+            Set<Long> films = directorFilms.remove(directorId);
+            if (films != null) {
+                for (Long filmId : films) {
+                    long[] ids = Arrays.stream(filmDirectors.get(filmId))
+                            .filter(id -> id != directorId)
+                            .toArray();
+                    if (ids.length == 0) {
+                        filmDirectors.remove(filmId);
+                    } else {
+                        filmDirectors.put(filmId, ids);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Long> match(String text, Map<Long, long[]> index, Map<Long, String> values) {
+        List<Long> result = new ArrayList<>();
+        if (text.length() < GRAM) {
+            values.forEach((id, value) -> {
+                if (value.contains(text)) {
+                    result.add(id);
+                }
+            });
+            return result;
+        }
+
+        long[] grams = grams(text);
+        long[][] postings = new long[grams.length][];
+        for (int i = 0; i < grams.length; i++) {
+            postings[i] = index.get(grams[i]);
+            if (postings[i] == null) {
+                return result;
+            }
+        }
+        Arrays.sort(postings, Comparator.comparingInt(posting -> posting.length));
+
+        for (long candidate : postings[0]) {
+            boolean matches = true;
+            for (int i = 1; i < postings.length && matches; i++) {
+                matches = Arrays.binarySearch(postings[i], candidate) >= 0;
+            }
+            if (matches && values.get(candidate).contains(text)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    private void putTitle(Long filmId, String title) {
+        removeTitle(filmId);
+        String text = normalize(title);
+        titles.put(filmId, text);
+        index(titleGrams, grams(text), filmId);
+    }
+
+    private void removeTitle(Long filmId) {
+        String previous = titles.remove(filmId);
+        if (previous != null) {
+            unindex(titleGrams, grams(previous), filmId);
+        }
+    }
+
+    private void putDirectorName(Long directorId, String name) {
+        String previous = directorNames.get(directorId);
+        if (previous != null) {
+            unindex(directorGrams, grams(previous), directorId);
+        }
+        String text = normalize(name);
+        directorNames.put(directorId, text);
+        index(directorGrams, grams(text), directorId);
+    }
+
+    private void putFilmDirectors(Long filmId, long[] directorIds) {
+        long[] previous = filmDirectors.remove(filmId);
+        if (previous != null) {
+            for (long directorId : previous) {
+                Set<Long> films = directorFilms.get(directorId);
+                if (films != null) {
+                    films.remove(filmId);
+                    if (films.isEmpty()) {
+                        directorFilms.remove(directorId);
+                    }
+                }
+            }
+        }
+        if (directorIds.length > 0) {
+            filmDirectors.put(filmId, directorIds);
+            for (long directorId : directorIds) {
+                directorFilms.computeIfAbsent(directorId, id -> new HashSet<>()).add(filmId);
+            }
+        }
+    }
+
+    private static void index(Map<Long, long[]> index, long[] grams, long id) {
+        for (long gram : grams) {
+            index.compute(gram, (key, posting) -> SortedLongArrays.insert(posting, id));
+        }
+    }
+
+    private static void unindex(Map<Long, long[]> index, long[] grams, long id) {
+        for (long gram : grams) {
+            index.computeIfPresent(gram, (key, posting) -> SortedLongArrays.delete(posting, id));
+        }
+    }
+
+    private static long[] grams(String text) {
+        if (text.length() < GRAM) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - GRAM + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2);
+        }
+        return Arrays.stream(grams).sorted().distinct().toArray();
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,236 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The friendship graph held in memory as sorted {@code long[]} adjacency arrays, replaced copy-on-write so
+ * readers never lock. Friendship is directed: {@code friends} holds the users a user has added,
+ * {@code followers} the users who added them, which is what removing a user has to clean up.
+ * Friend suggestions count mutual friends over the 2-hop neighbourhood within per-request budgets:
+ * at most {@code max-friends} friends are expanded, at most {@code max-fanout} of each friend's friends are
+ * counted, and expansion stops once the time budget is spent, ranking whatever has been counted so far.
+ * Users with at least {@code parallel-threshold} friends are expanded in {@code parallelism} slices: the calling
+ * thread takes one and the others go to a small pool owned by the graph, never to the common ForkJoin pool.
+ * A slice the pool cannot queue runs on the calling thread.
+ */
+@Component
+@RequiredArgsConstructor
+public class FriendGraph {
+    private static final long[] EMPTY = new long[0];
+
+    private static final Comparator<Map.Entry<Long, Integer>> SUGGESTION_ORDER =
+            Map.Entry.<Long, Integer>comparingByValue()
+                    .thenComparing(Map.Entry.<Long, Integer>comparingByKey().reversed());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, long[]> friends = new ConcurrentHashMap<>();
+
+    private final Map<Long, long[]> followers = new ConcurrentHashMap<>();
+
+    @Value("${filmorate.friends.suggestions.max-friends:1000}")
+    private int maxFriends = 1000;
+
+    @Value("${filmorate.friends.suggestions.max-fanout:1000}")
+    private int maxFanout = 1000;
+
+    @Value("${filmorate.friends.suggestions.time-budget-ms:200}")
+    private long timeBudgetMillis = 200;
+
+    @Value("${filmorate.friends.suggestions.parallel-threshold:256}")
+    private int parallelThreshold = 256;
+
+    @Value("${filmorate.friends.suggestions.parallelism:2}")
+    private int parallelism = 2;
+
+    private ExecutorService expansionPool;
+
+    @PostConstruct
+    public void load() {
+        Map<Long, List<Long>> friendIds = new HashMap<>();
+        Map<Long, List<Long>> followerIds = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, friend_id FROM friends", rs -> {
+            long userId = rs.getLong("user_id");
+            long friendId = rs.getLong("friend_id");
+            friendIds.computeIfAbsent(userId, id -> new ArrayList<>()).add(friendId);
+            followerIds.computeIfAbsent(friendId, id -> new ArrayList<>()).add(userId);
+        });
+        friends.clear();
+        followers.clear();
+        friendIds.forEach((userId, ids) -> friends.put(userId, SortedLongArrays.toSortedArray(ids)));
+        followerIds.forEach((userId, ids) -> followers.put(userId, SortedLongArrays.toSortedArray(ids)));
+    }
+
+    public long[] getFriends(Long userId) {
+        return friends.getOrDefault(userId, EMPTY);
+    }
+
+    public boolean isFriend(Long userId, Long friendId) {
+        return Arrays.binarySearch(getFriends(userId), friendId) >= 0;
+    }
+
+    public long[] getCommonFriends(Long userId, Long otherId) {
+        long[] first = getFriends(userId);
+        long[] second = getFriends(otherId);
+        long[] common = new long[Math.min(first.length, second.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                common[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(common, size);
+    }
+
+    public List<Long> suggest(Long userId, int limit) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        long[] direct = getFriends(userId);
+        int expanded = Math.min(direct.length, maxFriends);
+        int slices = direct.length >= parallelThreshold ? Math.max(1, Math.min(parallelism, expanded)) : 1;
+
+        Map<Long, Integer> mutual = new HashMap<>();
+        List<Future<Map<Long, Integer>>> parts = new ArrayList<>(slices - 1);
+        for (int slice = 1; slice < slices; slice++) {
+            int first = slice;
+            try {
+                parts.add(expansionPool().submit(() -> expandSlice(userId, direct, first, slices, expanded, deadline)));
+            } catch (RejectedExecutionException e) {
+                merge(mutual, expandSlice(userId, direct, first, slices, expanded, deadline));
+            }
+        }
+        merge(mutual, expandSlice(userId, direct, 0, slices, expanded, deadline));
+        for (Future<Map<Long, Integer>> part : parts) {
+            try {
+                merge(mutual, part.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                parts.forEach(unfinished -> unfinished.cancel(true));
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Не удалось подобрать друзей", e.getCause());
+            }
+        }
+
+        PriorityQueue<Map.Entry<Long, Integer>> top = new PriorityQueue<>(SUGGESTION_ORDER);
+        for (Map.Entry<Long, Integer> candidate : mutual.entrySet()) {
+            top.add(candidate);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Long> suggestions = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            suggestions.add(top.poll().getKey());
+        }
+        Collections.reverse(suggestions);
+        return suggestions;
+    }
+
+    public boolean addFriend(Long userId, Long friendId) {
+        boolean[] added = new boolean[1];
+        friends.compute(userId, (id, ids) -> {
+            long[] result = SortedLongArrays.insert(ids, friendId);
+            added[0] = result != ids;
+            return result;
+        });
+        followers.compute(friendId, (id, ids) -> SortedLongArrays.insert(ids, userId));
+        return added[0];
+    }
+
+    public void removeFriend(Long userId, Long friendId) {
+        friends.computeIfPresent(userId, (id, ids) -> SortedLongArrays.delete(ids, friendId));
+        followers.computeIfPresent(friendId, (id, ids) -> SortedLongArrays.delete(ids, userId));
+    }
+
+    public void removeUser(Long userId) {
+        long[] friendIds = friends.remove(userId);
+        if (friendIds != null) {
+            for (long friendId : friendIds) {
+                followers.computeIfPresent(friendId, (id, ids) -> SortedLongArrays.delete(ids, userId));
+            }
+        }
+        long[] followerIds = followers.remove(userId);
+        if (followerIds != null) {
+            for (long followerId : followerIds) {
+                friends.computeIfPresent(followerId, (id, ids) -> SortedLongArrays.delete(ids, userId));
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (expansionPool != null) {
+            expansionPool.shutdownNow();
+        }
+    }
+
+    private synchronized ExecutorService expansionPool() {
+        if (expansionPool == null) {
+            int threads = Math.max(1, parallelism - 1);
+            AtomicInteger counter = new AtomicInteger();
+            expansionPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(threads * 16), runnable -> {
+                        Thread thread = new Thread(runnable, "friend-graph-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+        }
+        return expansionPool;
+    }
+
+    private Map<Long, Integer> expandSlice(long userId, long[] direct, int first, int step, int end, long deadline) {
+        Map<Long, Integer> mutual = new HashMap<>();
+        for (int i = first; i < end; i += step) {
+            expand(userId, direct, direct[i], deadline, mutual);
+        }
+        return mutual;
+    }
+
+    private static void merge(Map<Long, Integer> mutual, Map<Long, Integer> part) {
+        part.forEach((candidate, count) -> mutual.merge(candidate, count, Integer::sum));
+    }
+
+    private void expand(long userId, long[] direct, long friendId, long deadline, Map<Long, Integer> mutual) {
+        if (System.nanoTime() - deadline > 0) {
+            return;
+        }
+        long[] candidates = getFriends(friendId);
+        for (int i = 0; i < Math.min(candidates.length, maxFanout); i++) {
+            long candidate = candidates[i];
+            if (candidate != userId && Arrays.binarySearch(direct, candidate) < 0) {
+                mutual.merge(candidate, 1, Integer::sum);
+            }
+        }
+    }
+}
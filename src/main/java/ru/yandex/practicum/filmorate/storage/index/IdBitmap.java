@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free set of non-negative ids, one bit per id. Bits live in 8 KB pages of 65536 ids that are allocated on
+ * first use, so a dense id range costs about 1 bit per row and sparse ranges do not allocate the gaps.
+ */
+public class IdBitmap {
+    private static final int PAGE_BITS = 16;
+
+    private static final int WORDS_PER_PAGE = 1 << (PAGE_BITS - 6);
+
+    private final Map<Long, AtomicLongArray> pages = new ConcurrentHashMap<>();
+
+    public boolean contains(long id) {
+        if (id < 0) {
+            return false;
+        }
+        AtomicLongArray page = pages.get(id >>> PAGE_BITS);
+        return page != null && (page.get(word(id)) & mask(id)) != 0;
+    }
+
+    public void add(long id) {
+        if (id < 0) {
+            return;
+        }
+        pages.computeIfAbsent(id >>> PAGE_BITS, key -> new AtomicLongArray(WORDS_PER_PAGE))
+                .accumulateAndGet(word(id), mask(id), (word, mask) -> word | mask);
+    }
+
+    public void remove(long id) {
+        if (id < 0) {
+            return;
+        }
+        AtomicLongArray page = pages.get(id >>> PAGE_BITS);
+        if (page != null) {
+            page.accumulateAndGet(word(id), mask(id), (word, mask) -> word & ~mask);
+        }
+    }
+
+    public void clear() {
+        pages.clear();
+    }
+
+    private static int word(long id) {
+        return (int) (id & ((1 << PAGE_BITS) - 1)) >>> 6;
+    }
+
+    private static long mask(long id) {
+        return 1L << (id & 63);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Ids of the films and users that exist, so that validating a reference does not need a query when the id is
+ * unknown. Writers add an id only after its row is committed and remove it after the row is deleted, so a miss is
+ * authoritative while a hit may be stale and is confirmed against the database by the storage.
+ */
+@Component
+@RequiredArgsConstructor
+public class KnownIds {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final IdBitmap films = new IdBitmap();
+
+    private final IdBitmap users = new IdBitmap();
+
+    @PostConstruct
+    public void load() {
+        films.clear();
+        jdbcTemplate.query("SELECT id FROM films", rs -> {
+            films.add(rs.getLong("id"));
+        });
+        users.clear();
+        jdbcTemplate.query("SELECT id FROM users", rs -> {
+            users.add(rs.getLong("id"));
+        });
+    }
+
+    public boolean mightContainFilm(Long id) {
+        return id != null && films.contains(id);
+    }
+
+    public void addFilm(Long id) {
+        films.add(id);
+    }
+
+    public void removeFilm(Long id) {
+        films.remove(id);
+    }
+
+    public boolean mightContainUser(Long id) {
+        return id != null && users.contains(id);
+    }
+
+    public void addUser(Long id) {
+        users.add(id);
+    }
+
+    public void removeUser(Long id) {
+        users.remove(id);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Copy-on-write helpers for the sorted {@code long[]} adjacency lists of the in-memory indexes. Arrays are never
+ * changed in place, so a reader holding one sees a consistent snapshot; an emptied list becomes {@code null} so that
+ * {@code Map.compute} drops its entry.
+ */
+final class SortedLongArrays {
+    private SortedLongArrays() {
+    }
+
+    static long[] insert(long[] ids, long value) {
+        if (ids == null) {
+            return new long[]{value};
+        }
+        int index = Arrays.binarySearch(ids, value);
+        if (index >= 0) {
+            return ids;
+        }
+        int position = -index - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(ids, position, result, position + 1, ids.length - position);
+        return result;
+    }
+
+    static long[] delete(long[] ids, long value) {
+        int index = Arrays.binarySearch(ids, value);
+        if (index < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, index);
+        System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+        return result;
+    }
+
+    static long[] toSortedArray(List<Long> ids) {
+        long[] result = ids.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(result);
+        return result;
+    }
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.EntityAlreadyExistException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.BulkStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.index.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.index.FilmRecommender;
+import ru.yandex.practicum.filmorate.storage.index.FriendGraph;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Same contract as {@code BulkDbStorage}: a 0 count marks a duplicate or a dangling reference, and no feed events
+ * are written.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryBulkStorage implements BulkStorage {
+    private final FilmStorage filmStorage;
+
+    private final UserStorage userStorage;
+
+    private final FilmLeaderboard filmLeaderboard;
+
+    private final FilmRecommender filmRecommender;
+
+    private final FriendGraph friendGraph;
+
+    private final EntityVersions entityVersions;
+
+    @Override
+    public List<Long> insertFilms(List<Film> films) {
+        return films.stream()
+                .map(film -> filmStorage.create(film).getId())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int[] insertUsers(List<User> users) {
+        int[] counts = new int[users.size()];
+        for (int i = 0; i < counts.length; i++) {
+            try {
+                userStorage.create(users.get(i));
+                counts[i] = 1;
+            } catch (EntityAlreadyExistException e) {
+                counts[i] = 0;
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public int[] insertLikes(List<Like> likes) {
+        int[] counts = new int[likes.size()];
+        for (int i = 0; i < counts.length; i++) {
+            Like like = likes.get(i);
+            if (exists(like.getFilmId(), like.getUserId())
+                    && filmRecommender.addLike(like.getFilmId(), like.getUserId())) {
+                filmLeaderboard.addLike(like.getFilmId());
+                entityVersions.likesChanged();
+                counts[i] = 1;
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public int[] insertFriends(List<Friendship> friendships) {
+        int[] counts = new int[friendships.size()];
+        for (int i = 0; i < counts.length; i++) {
+            Friendship friendship = friendships.get(i);
+            Long userId = friendship.getUserId();
+            Long friendId = friendship.getFriendId();
+            if (!userId.equals(friendId)
+                    && userStorage.exists(userId) && userStorage.exists(friendId)
+                    && friendGraph.addFriend(userId, friendId)) {
+                entityVersions.friendsChanged(userId);
+                counts[i] = 1;
+            }
+        }
+        return counts;
+    }
+
+    private boolean exists(Long filmId, Long userId) {
+        return filmStorage.exists(filmId) && userStorage.exists(userId);
+    }
+}
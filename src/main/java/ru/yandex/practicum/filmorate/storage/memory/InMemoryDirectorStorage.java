@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.storage.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.index.FilmSearchIndex;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "memory")
+public class InMemoryDirectorStorage implements DirectorStorage {
+    private final ReferenceDataCache referenceDataCache;
+
+    private final FilmSearchIndex filmSearchIndex;
+
+    private final EntityVersions entityVersions;
+
+    private final AtomicLong ids;
+
+    public InMemoryDirectorStorage(ReferenceDataCache referenceDataCache,
+                                   FilmSearchIndex filmSearchIndex,
+                                   EntityVersions entityVersions) {
+        this.referenceDataCache = referenceDataCache;
+        this.filmSearchIndex = filmSearchIndex;
+        this.entityVersions = entityVersions;
+        this.ids = new AtomicLong(referenceDataCache.getDirectors().stream()
+                .mapToLong(Director::getId)
+                .max()
+                .orElse(0));
+    }
+
+    @Override
+    public List<Director> findAll() {
+        return referenceDataCache.getDirectors();
+    }
+
+    @Override
+    public Director getById(Long id) {
+        Director director = referenceDataCache.getDirector(id);
+        if (director == null) {
+            throw new EntityNotFoundException(String.format("Директор с id %s отсутствует", id));
+        }
+        return director;
+    }
+
+    @Override
+    public Director create(Director director) {
+        Director createdDirector = Director.builder()
+                .id(ids.incrementAndGet())
+                .name(director.getName())
+                .build();
+        referenceDataCache.putDirector(createdDirector);
+        filmSearchIndex.putDirector(createdDirector);
+        return createdDirector;
+    }
+
+    @Override
+    public Director update(Director director) {
+        getById(director.getId());
+        referenceDataCache.putDirector(director);
+        filmSearchIndex.putDirector(director);
+        entityVersions.directorsChanged();
+        return director;
+    }
+
+    @Override
+    public void remove(Long id) {
+        referenceDataCache.removeDirector(id);
+        filmSearchIndex.removeDirector(id);
+        entityVersions.directorsChanged();
+    }
+
+    @Override
+    public void setFilmsDirectors(Long filmId, Set<Director> directors) {
+        // Director ids are kept on the film itself by InMemoryFilmStorage.
+    }
+}
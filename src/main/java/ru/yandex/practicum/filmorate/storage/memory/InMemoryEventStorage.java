@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.EventType;
+import ru.yandex.practicum.filmorate.model.Operation;
+import ru.yandex.practicum.filmorate.storage.EventStorage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "memory")
+public class InMemoryEventStorage implements EventStorage {
+    private static final Comparator<Event> FEED_ORDER = Comparator.comparing(Event::getTimestamp)
+            .thenComparing(Event::getEventId);
+
+    private final Map<Long, List<Event>> feeds = new ConcurrentHashMap<>();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @Override
+    public List<Event> getFeedByUserId(Long id) {
+        List<Event> events = snapshot(id);
+        events.sort(FEED_ORDER);
+        return events;
+    }
+
+    @Override
+    public List<Event> getFeedPage(Long userId, Long sinceTime, Long sinceId, Long beforeTime, Long beforeId, int limit) {
+        Event since = sinceTime == null ? null : Event.builder().timestamp(sinceTime).eventId(sinceId).build();
+        Event before = beforeTime == null ? null : Event.builder().timestamp(beforeTime).eventId(beforeId).build();
+        boolean backwards = before != null && since == null;
+
+        List<Event> events = snapshot(userId).stream()
+                .filter(event -> since == null || FEED_ORDER.compare(event, since) > 0)
+                .filter(event -> before == null || FEED_ORDER.compare(event, before) < 0)
+                .sorted(backwards ? FEED_ORDER.reversed() : FEED_ORDER)
+                .limit(limit)
+                .collect(Collectors.toList());
+        if (backwards) {
+            Collections.reverse(events);
+        }
+        return events;
+    }
+
+    @Override
+    public void addEvent(Long userId, Long entityId, EventType eventType, Operation operation) {
+        List<Event> feed = feeds.computeIfAbsent(userId, id -> new ArrayList<>());
+        synchronized (feed) {
+            feed.add(Event.builder()
+                    .eventId(ids.incrementAndGet())
+                    .userId(userId)
+                    .entityId(entityId)
+                    .eventType(eventType)
+                    .operation(operation)
+                    .timestamp(System.currentTimeMillis())
+                    .build());
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    private List<Event> snapshot(Long userId) {
+        List<Event> feed = feeds.get(userId);
+        if (feed == null) {
+            return new ArrayList<>();
+        }
+        synchronized (feed) {
+            return new ArrayList<>(feed);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.index.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.index.FilmRecommender;
+import ru.yandex.practicum.filmorate.storage.index.FilmSearchIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Films are kept as immutable rows with sorted genre and director id arrays and hydrated on read from
+ * {@link ReferenceDataCache}, the same way {@code FilmDbStorage} resolves names, so renaming or removing a
+ * director is visible in every film without touching the rows.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryFilmStorage implements FilmStorage {
+    private final MpaStorage mpaStorage;
+
+    private final DirectorStorage directorStorage;
+
+    private final LikeStorage likeStorage;
+
+    private final UserStorage userStorage;
+
+    private final FilmLeaderboard filmLeaderboard;
+
+    private final FilmRecommender filmRecommender;
+
+    private final FilmSearchIndex filmSearchIndex;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final EntityVersions entityVersions;
+
+    private final NavigableMap<Long, FilmRow> films = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @Override
+    public List<Film> findAll() {
+        List<Film> result = new ArrayList<>();
+        streamAll(result::add);
+        return result;
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        films.values().forEach(row -> consumer.accept(hydrate(row)));
+    }
+
+    @Override
+    public List<Long> findPageIds(Long afterId, int limit) {
+        return films.tailMap(afterId, false).keySet().stream()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Film create(Film film) {
+        FilmRow row = toRow(ids.incrementAndGet(), film);
+        films.put(row.id, row);
+        Film createdFilm = hydrate(row);
+        filmLeaderboard.putFilm(createdFilm);
+        filmSearchIndex.putFilm(createdFilm);
+        entityVersions.filmChanged(row.id);
+        return createdFilm;
+    }
+
+    @Override
+    public Film update(Film film) {
+        FilmRow row = toRow(film.getId(), film);
+        if (films.replace(row.id, row) == null) {
+            throw new EntityNotFoundException(String.format("Фильм c id %s отсутствует", film.getId()));
+        }
+        Film updatedFilm = hydrate(row);
+        filmLeaderboard.putFilm(updatedFilm);
+        filmSearchIndex.putFilm(updatedFilm);
+        entityVersions.filmChanged(row.id);
+        return updatedFilm;
+    }
+
+    @Override
+    public Film getFilmById(Long id) {
+        FilmRow row = films.get(id);
+        if (row == null) {
+            throw new EntityNotFoundException(String.format("Фильм c id %s отсутствует", id));
+        }
+        return hydrate(row);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(List<Long> ids) {
+        return ids.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .map(this::hydrate)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return id != null && films.containsKey(id);
+    }
+
+    @Override
+    public void addLike(Long filmId, Long userId) {
+        checkExists(filmId);
+        userStorage.checkExists(userId);
+
+        likeStorage.addLike(filmId, userId);
+    }
+
+    @Override
+    public void removeLike(Long filmId, Long userId) {
+        likeStorage.removeLike(filmId, userId);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(Integer count, Long genreId, Integer year) {
+        return getFilmsByIds(likeStorage.getPopularFilms(count, genreId, year));
+    }
+
+    @Override
+    public List<Film> getRecommendations(Long id) {
+        return getFilmsByIds(filmRecommender.recommend(id));
+    }
+
+    @Override
+    public List<Film> getDirectorFilmsByYear(Long directorId) {
+        return getDirectorFilms(directorId, row -> row.releaseDate.getYear());
+    }
+
+    @Override
+    public List<Film> getDirectorFilmsByLikes(Long directorId) {
+        return getDirectorFilms(directorId, row -> filmLeaderboard.getLikeCount(row.id));
+    }
+
+    @Override
+    public void remove(Long filmId) {
+        films.remove(filmId);
+        filmLeaderboard.removeFilm(filmId);
+        filmRecommender.removeFilm(filmId);
+        filmSearchIndex.removeFilm(filmId);
+        entityVersions.filmChanged(filmId);
+    }
+
+    @Override
+    public List<Film> findFilm(String findingSubstring, List<String> params) {
+        boolean byTitle = params.contains("title");
+        boolean byDirector = params.contains("director");
+        if (!byTitle && !byDirector) {
+            throw new RuntimeException("Неверные параметры запроса");
+        }
+
+        List<Long> ids = new ArrayList<>(filmSearchIndex.search(findingSubstring, byTitle, byDirector));
+        ids.sort(Comparator.<Long>comparingInt(filmLeaderboard::getLikeCount).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        return getFilmsByIds(ids);
+    }
+
+    private List<Film> getDirectorFilms(Long directorId, ToLongFunction<FilmRow> sortKey) {
+        directorStorage.getById(directorId);
+
+        return films.values().stream()
+                .filter(row -> Arrays.binarySearch(row.directorIds, directorId) >= 0)
+                .sorted(Comparator.comparingLong(sortKey).thenComparingLong(row -> row.id))
+                .map(this::hydrate)
+                .collect(Collectors.toList());
+    }
+
+    private FilmRow toRow(Long id, Film film) {
+        Mpa mpa = mpaStorage.getById(film.getMpa().getId());
+        return new FilmRow(id, film.getName(), film.getDescription(), film.getReleaseDate(), film.getDuration(),
+                mpa.getId(), sortedIds(film.getGenres(), Genre::getId), sortedIds(film.getDirectors(), Director::getId));
+    }
+
+    private Film hydrate(FilmRow row) {
+        Set<Genre> genres = new LinkedHashSet<>();
+        for (long genreId : row.genreIds) {
+            Genre genre = referenceDataCache.getGenre(genreId);
+            if (genre != null) {
+                genres.add(genre);
+            }
+        }
+        Set<Director> directors = new LinkedHashSet<>();
+        for (long directorId : row.directorIds) {
+            Director director = referenceDataCache.getDirector(directorId);
+            if (director != null) {
+                directors.add(director);
+            }
+        }
+        Mpa mpa = referenceDataCache.getMpa(row.mpaId);
+        return Film.builder()
+                .id(row.id)
+                .name(row.name)
+                .description(row.description)
+                .releaseDate(row.releaseDate)
+                .duration(row.duration)
+                .mpa(mpa != null ? mpa : Mpa.builder().id(row.mpaId).build())
+                .genres(genres)
+                .directors(directors)
+                .build();
+    }
+
+    private static <T> long[] sortedIds(Set<T> items, ToLongFunction<T> id) {
+        if (items == null) {
+            return new long[0];
+        }
+        return items.stream().mapToLong(id).sorted().distinct().toArray();
+    }
+
+    private static final class FilmRow {
+        private final long id;
+        private final String name;
+        private final String description;
+        private final LocalDate releaseDate;
+        private final int duration;
+        private final long mpaId;
+        private final long[] genreIds;
+        private final long[] directorIds;
+
+        private FilmRow(long id, String name, String description, LocalDate releaseDate, int duration,
+                        long mpaId, long[] genreIds, long[] directorIds) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.releaseDate = releaseDate;
+            this.duration = duration;
+            this.mpaId = mpaId;
+            this.genreIds = genreIds;
+            this.directorIds = directorIds;
+        }
+    }
+}
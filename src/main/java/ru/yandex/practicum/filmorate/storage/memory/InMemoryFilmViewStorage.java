@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmViewStorage;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In memory a film is already hydrated by a map lookup, so documents are not kept and every read serializes.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryFilmViewStorage implements FilmViewStorage {
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Map<Long, String> getDocuments(List<Long> ids) {
+        return Map.of();
+    }
+
+    @Override
+    public long stamp() {
+        return 0;
+    }
+
+    @Override
+    public String fill(Film film, long stamp) {
+        try {
+            return objectMapper.writeValueAsString(film);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void put(Film film) {
+    }
+
+    @Override
+    public void invalidate(List<Long> filmIds) {
+    }
+}
@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+
+import java.util.List;
+import java.util.Set;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryGenreStorage implements GenreStorage {
+    private final ReferenceDataCache referenceDataCache;
+
+    @Override
+    public List<Genre> findAll() {
+        return referenceDataCache.getGenres();
+    }
+
+    @Override
+    public Genre getById(Long id) {
+        Genre genre = referenceDataCache.getGenre(id);
+        if (genre == null) {
+            throw new EntityNotFoundException(String.format("Жанр с id %s отсутствует", id));
+        }
+        return genre;
+    }
+
+    @Override
+    public void setFilmsGenres(Long filmId, Set<Genre> genres) {
+        // Genre ids are kept on the film itself by InMemoryFilmStorage.
+    }
+}
@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.EntityAlreadyExistException;
+import ru.yandex.practicum.filmorate.model.EventType;
+import ru.yandex.practicum.filmorate.model.Operation;
+import ru.yandex.practicum.filmorate.storage.EventStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.index.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.index.FilmRecommender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Likes live in the like matrix of {@link FilmRecommender}; {@link FilmLeaderboard} keeps the per-film counts.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryLikeStorage implements LikeStorage {
+    private final EventStorage eventStorage;
+
+    private final FilmLeaderboard filmLeaderboard;
+
+    private final FilmRecommender filmRecommender;
+
+    private final EntityVersions entityVersions;
+
+    @Override
+    public void addLike(Long filmId, Long userId) {
+        if (filmRecommender.addLike(filmId, userId)) {
+            filmLeaderboard.addLike(filmId);
+            entityVersions.likesChanged();
+            eventStorage.addEvent(userId, filmId, EventType.LIKE, Operation.ADD);
+        }
+    }
+
+    @Override
+    public void removeLike(Long filmId, Long userId) {
+        if (!filmRecommender.removeLike(filmId, userId)) {
+            throw new EntityAlreadyExistException("Этот пользователь не ставил лайк");
+        }
+        filmLeaderboard.removeLike(filmId);
+        entityVersions.likesChanged();
+        eventStorage.addEvent(userId, filmId, EventType.LIKE, Operation.REMOVE);
+    }
+
+    @Override
+    public void removeUserLikes(Long userId) {
+        for (long filmId : filmRecommender.getLikedFilms(userId)) {
+            if (filmRecommender.removeLike(filmId, userId)) {
+                filmLeaderboard.removeLike(filmId);
+                entityVersions.likesChanged();
+            }
+        }
+    }
+
+    @Override
+    public List<Long> getPopularFilms(Integer limit, Long genreId, Integer year) {
+        return filmLeaderboard.getTop(limit, genreId, year);
+    }
+
+    @Override
+    public List<Long> getCommonFilmIds(Long userId, Long friendId) {
+        long[] first = filmRecommender.getLikedFilms(userId);
+        long[] second = filmRecommender.getLikedFilms(friendId);
+        List<Long> common = new ArrayList<>();
+        for (long filmId : first) {
+            if (Arrays.binarySearch(second, filmId) >= 0) {
+                common.add(filmId);
+            }
+        }
+        common.sort(Comparator.<Long>comparingInt(filmLeaderboard::getLikeCount).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        return common;
+    }
+
+    @Override
+    public List<Long> getLikedFilmsByUserId(Long id) {
+        return Arrays.stream(filmRecommender.getLikedFilms(id)).boxed().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceDataCache;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryMpaStorage implements MpaStorage {
+    private final ReferenceDataCache referenceDataCache;
+
+    @Override
+    public List<Mpa> findAll() {
+        return referenceDataCache.getMpa();
+    }
+
+    @Override
+    public Mpa getById(Long id) {
+        Mpa mpa = referenceDataCache.getMpa(id);
+        if (mpa == null) {
+            throw new EntityNotFoundException(String.format("Рейтинг с id %s отсутствует", id));
+        }
+        return mpa;
+    }
+}
@@ -0,0 +1,193 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.EntityAlreadyExistException;
+import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
+import ru.yandex.practicum.filmorate.model.EventType;
+import ru.yandex.practicum.filmorate.model.Operation;
+import ru.yandex.practicum.filmorate.model.Review;
+import ru.yandex.practicum.filmorate.storage.EventStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.ReviewStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Votes are applied under the monitor of the stored review, which gives the same per-review atomicity as the
+ * row lock in {@code ReviewDbStorage}.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryReviewStorage implements ReviewStorage {
+    private static final Comparator<Review> TOP_ORDER = Comparator.comparingInt(Review::getUseful).reversed()
+            .thenComparing(Review::getReviewId);
+
+    private final FilmStorage filmStorage;
+
+    private final UserStorage userStorage;
+
+    private final EventStorage eventStorage;
+
+    private final Map<Long, StoredReview> reviews = new ConcurrentHashMap<>();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @Override
+    public Review create(Review review) {
+        checkDataExist(review.getUserId(), review.getFilmId());
+        Review createdReview = copy(review);
+        createdReview.setReviewId(ids.incrementAndGet());
+        reviews.put(createdReview.getReviewId(), new StoredReview(createdReview));
+        eventStorage.addEvent(review.getUserId(), createdReview.getReviewId(), EventType.REVIEW, Operation.ADD);
+        return copy(createdReview);
+    }
+
+    @Override
+    public Review update(Review review) {
+        checkDataExist(review.getUserId(), review.getFilmId());
+        StoredReview stored = reviews.get(review.getReviewId());
+        if (stored == null) {
+            throw notFound(review.getReviewId());
+        }
+        synchronized (stored) {
+            stored.review.setIsPositive(review.getIsPositive());
+            stored.review.setContent(review.getContent());
+        }
+        Review updatedReview = getById(review.getReviewId());
+        eventStorage.addEvent(updatedReview.getUserId(), updatedReview.getReviewId(), EventType.REVIEW, Operation.UPDATE);
+        return updatedReview;
+    }
+
+    @Override
+    public void removeReview(Long id) {
+        StoredReview stored = reviews.remove(id);
+        if (stored == null) {
+            throw notFound(id);
+        }
+        eventStorage.addEvent(stored.review.getUserId(), id, EventType.REVIEW, Operation.REMOVE);
+    }
+
+    @Override
+    public Review getById(Long id) {
+        StoredReview stored = reviews.get(id);
+        if (stored == null) {
+            throw notFound(id);
+        }
+        synchronized (stored) {
+            return copy(stored.review);
+        }
+    }
+
+    @Override
+    public List<Review> getReviewsByFilmId(Long id, Integer count) {
+        return getReviewsPage(id, null, null, count);
+    }
+
+    @Override
+    public List<Review> getReviewsPage(Long filmId, Integer afterUseful, Long afterId, int limit) {
+        return reviews.values().stream()
+                .map(stored -> {
+                    synchronized (stored) {
+                        return copy(stored.review);
+                    }
+                })
+                .filter(review -> filmId == null || filmId.equals(review.getFilmId()))
+                .filter(review -> afterUseful == null || review.getUseful() < afterUseful
+                        || (review.getUseful() == afterUseful && review.getReviewId() > afterId))
+                .sorted(TOP_ORDER)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void addLike(Long id, Long userId) {
+        vote(id, userId, true);
+    }
+
+    @Override
+    public void addDislike(Long id, Long userId) {
+        vote(id, userId, false);
+    }
+
+    @Override
+    public void removeLike(Long id, Long userId) {
+        removeVote(id, userId, true);
+    }
+
+    @Override
+    public void removeDislike(Long id, Long userId) {
+        removeVote(id, userId, false);
+    }
+
+    private void vote(Long id, Long userId, boolean isLike) {
+        userStorage.checkExists(userId);
+        StoredReview stored = reviews.get(id);
+        if (stored == null) {
+            throw notFound(id);
+        }
+        synchronized (stored) {
+            Boolean oldVote = stored.votes.get(userId);
+            if (oldVote != null && oldVote == isLike) {
+                throw new EntityAlreadyExistException("Пользователь уже оценил этот отзыв.");
+            }
+            stored.votes.put(userId, isLike);
+            int delta = oldVote == null ? 1 : 2;
+            stored.review.setUseful(stored.review.getUseful() + (isLike ? delta : -delta));
+        }
+    }
+
+    private void removeVote(Long id, Long userId, boolean isLike) {
+        userStorage.checkExists(userId);
+        StoredReview stored = reviews.get(id);
+        if (stored == null) {
+            throw notFound(id);
+        }
+        synchronized (stored) {
+            Boolean oldVote = stored.votes.get(userId);
+            if (oldVote == null || oldVote != isLike) {
+                throw new EntityAlreadyExistException("Пользователь еще не поставил оценку отзыву.");
+            }
+            stored.votes.remove(userId);
+            stored.review.setUseful(stored.review.getUseful() + (isLike ? -1 : 1));
+        }
+    }
+
+    private void checkDataExist(Long userId, Long filmId) {
+        userStorage.checkExists(userId);
+        filmStorage.checkExists(filmId);
+    }
+
+    private static EntityNotFoundException notFound(Long id) {
+        return new EntityNotFoundException(String.format("Отзыв с id %s отсутствует.", id));
+    }
+
+    private static Review copy(Review review) {
+        return Review.builder()
+                .reviewId(review.getReviewId())
+                .isPositive(review.getIsPositive())
+                .content(review.getContent())
+                .userId(review.getUserId())
+                .filmId(review.getFilmId())
+                .useful(review.getUseful())
+                .build();
+    }
+
+    private static final class StoredReview {
+        private final Review review;
+        private final Map<Long, Boolean> votes = new HashMap<>();
+
+        private StoredReview(Review review) {
+            this.review = review;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.EntityAlreadyExistException;
+import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
+import ru.yandex.practicum.filmorate.exception.InvalidRequestException;
+import ru.yandex.practicum.filmorate.model.EventType;
+import ru.yandex.practicum.filmorate.model.Operation;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EventStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.index.FriendGraph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.storage", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryUserStorage implements UserStorage {
+    private final EventStorage eventStorage;
+
+    private final LikeStorage likeStorage;
+
+    private final FriendGraph friendGraph;
+
+    private final EntityVersions entityVersions;
+
+    private final NavigableMap<Long, User> users = new ConcurrentSkipListMap<>();
+
+    private final Map<String, Long> emails = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> logins = new ConcurrentHashMap<>();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @Override
+    public List<User> findAll() {
+        return users.values().stream()
+                .map(InMemoryUserStorage::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        users.values().forEach(user -> consumer.accept(copy(user)));
+    }
+
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        return users.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(InMemoryUserStorage::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized User create(User user) {
+        User createdUser = copy(user);
+        createdUser.setId(ids.incrementAndGet());
+        claim(createdUser, null);
+        users.put(createdUser.getId(), createdUser);
+        return copy(createdUser);
+    }
+
+    @Override
+    public synchronized User update(User user) {
+        User currentUser = users.get(user.getId());
+        if (currentUser == null) {
+            throw new EntityNotFoundException(String.format("Пользователя c id %s отсутствует", user.getId()));
+        }
+        User updatedUser = copy(user);
+        claim(updatedUser, currentUser);
+        users.put(updatedUser.getId(), updatedUser);
+        entityVersions.userChanged(updatedUser.getId());
+        return copy(updatedUser);
+    }
+
+    @Override
+    public User getUserById(Long id) {
+        User user = users.get(id);
+        if (user == null) {
+            throw new EntityNotFoundException(String.format("Пользователя c id %s отсутствует", id));
+        }
+        return copy(user);
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return id != null && users.containsKey(id);
+    }
+
+    @Override
+    public List<User> getUsersByIds(List<Long> ids) {
+        return ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(InMemoryUserStorage::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<User> getFriends(Long id) {
+        return getUsersByIds(toList(friendGraph.getFriends(id)));
+    }
+
+    @Override
+    public void addFriend(Long id, Long friendId) {
+        if (!friendGraph.addFriend(id, friendId)) {
+            throw new EntityAlreadyExistException("Дружба уже существует");
+        }
+        entityVersions.friendsChanged(id);
+        eventStorage.addEvent(id, friendId, EventType.FRIEND, Operation.ADD);
+    }
+
+    @Override
+    public void removeFriend(Long id, Long friendId) {
+        friendGraph.removeFriend(id, friendId);
+        entityVersions.friendsChanged(id);
+        eventStorage.addEvent(id, friendId, EventType.FRIEND, Operation.REMOVE);
+    }
+
+    @Override
+    public List<User> getCommonFriends(Long id, Long otherId) {
+        return getUsersByIds(toList(friendGraph.getCommonFriends(id, otherId)));
+    }
+
+    @Override
+    public List<User> getFriendSuggestions(Long id, int limit) {
+        return getUsersByIds(friendGraph.suggest(id, limit));
+    }
+
+    @Override
+    public synchronized void remove(Long userId) {
+        likeStorage.removeUserLikes(userId);
+        friendGraph.removeUser(userId);
+        User user = users.remove(userId);
+        if (user != null) {
+            emails.remove(user.getEmail());
+            logins.remove(user.getLogin());
+        }
+        entityVersions.userChanged(userId);
+    }
+
+    private void claim(User user, User previous) {
+        // The users table declares email and login NOT NULL; the concurrent maps reject null keys outright.
+        if (user.getEmail() == null) {
+            throw new InvalidRequestException("Почта не может быть пустой");
+        }
+        if (user.getLogin() == null) {
+            throw new InvalidRequestException("Логин не может быть пустым");
+        }
+        Long emailOwner = emails.get(user.getEmail());
+        Long loginOwner = logins.get(user.getLogin());
+        if ((emailOwner != null && !emailOwner.equals(user.getId()))
+                || (loginOwner != null && !loginOwner.equals(user.getId()))) {
+            throw new EntityAlreadyExistException("Пользователь с такой почтой или логином уже существует");
+        }
+        if (previous != null) {
+            emails.remove(previous.getEmail());
+            logins.remove(previous.getLogin());
+        }
+        emails.put(user.getEmail(), user.getId());
+        logins.put(user.getLogin(), user.getId());
+    }
+
+    private static List<Long> toList(long[] ids) {
+        return Arrays.stream(ids).boxed().collect(Collectors.toList());
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .name(user.getName())
+                .login(user.getLogin())
+                .birthday(user.getBirthday())
+                .build();
+    }
+}
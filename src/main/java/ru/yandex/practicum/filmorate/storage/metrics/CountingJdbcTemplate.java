@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.storage.metrics;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The application's {@link JdbcTemplate}: every statement it prepares passes through
+ * {@link #applyStatementSettings}, which is where statements are counted for {@link StorageMetrics}.
+ * Created by {@link StorageMetricsConfiguration}.
+ */
+public class CountingJdbcTemplate extends JdbcTemplate {
+    public CountingJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        StorageMetrics.countStatement();
+        super.applyStatementSettings(stmt);
+    }
+}
@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.storage.metrics;
+
+import ru.yandex.practicum.filmorate.model.StorageMethodStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a single storage method. Latencies go to a histogram with power-of-two microsecond
+ * buckets, so recording a call is a handful of atomic increments and allocates nothing.
+ */
+public class MethodMetrics {
+    private static final int BUCKETS = 32;
+
+    private final String name;
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    private final LongAdder rows = new LongAdder();
+
+    private final LongAdder statements = new LongAdder();
+
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    public MethodMetrics(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos, long rowCount, long statementCount, boolean failed) {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        rows.add(rowCount);
+        statements.add(statementCount);
+        histogram.incrementAndGet(bucket(nanos));
+    }
+
+    public StorageMethodStats getStats() {
+        long callCount = calls.sum();
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = histogram.get(i);
+        }
+        return StorageMethodStats.builder()
+                .name(name)
+                .calls(callCount)
+                .errors(errors.sum())
+                .meanMicros(callCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / callCount))
+                .p50Micros(percentile(counts, 0.5))
+                .p99Micros(percentile(counts, 0.99))
+                .maxMicros(TimeUnit.NANOSECONDS.toMicros(maxNanos.get()))
+                .rows(rows.sum())
+                .statements(statements.sum())
+                .build();
+    }
+
+    private static int bucket(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    private static long percentile(long[] counts, double quantile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == 0 ? 0 : 1L << i;
+            }
+        }
+        return 1L << (counts.length - 1);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.storage.metrics;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.StorageMethodStats;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Component
+public class StorageMetrics {
+    private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    public MethodMetrics register(String name) {
+        return methods.computeIfAbsent(name, MethodMetrics::new);
+    }
+
+    public List<StorageMethodStats> getStats() {
+        return methods.values().stream()
+                .map(MethodMetrics::getStats)
+                .sorted(Comparator.comparing(StorageMethodStats::getName))
+                .collect(Collectors.toList());
+    }
+
+    static long statementCount() {
+        return STATEMENTS.get()[0];
+    }
+
+    static void countStatement() {
+        STATEMENTS.get()[0]++;
+    }
+}
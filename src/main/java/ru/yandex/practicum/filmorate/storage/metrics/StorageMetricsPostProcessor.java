@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.storage.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wraps every bean implementing a {@code *Storage} interface into a proxy that records call count,
+ * latency, rows returned and JDBC statements issued for each interface method.
+ * <p>
+ * The proxy is not free: every call allocates a method invocation and an argument array and looks up its
+ * metrics in a map, on top of the two {@code nanoTime} calls. That is noise next to a JDBC round trip but
+ * shows up on the in-memory paths (caches, indexes, {@code memory} storage), so
+ * {@code filmorate.metrics.storage.enabled=false} leaves storages unwrapped.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.metrics.storage.enabled", havingValue = "true", matchIfMissing = true)
+public class StorageMetricsPostProcessor implements BeanPostProcessor {
+    private static final String STORAGE_PACKAGE = "ru.yandex.practicum.filmorate.storage";
+
+    private final StorageMetrics storageMetrics;
+
+    public StorageMetricsPostProcessor(StorageMetrics storageMetrics) {
+        this.storageMetrics = storageMetrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        Map<Method, MethodMetrics> metrics = new HashMap<>();
+        for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+            if (STORAGE_PACKAGE.equals(type.getPackageName()) && type.getSimpleName().endsWith("Storage")) {
+                for (Method method : type.getMethods()) {
+                    MethodMetrics methodMetrics = storageMetrics.register(type.getSimpleName() + "." + method.getName());
+                    metrics.put(method, methodMetrics);
+                    metrics.put(ClassUtils.getMostSpecificMethod(method, targetClass), methodMetrics);
+                }
+            }
+        }
+        if (metrics.isEmpty()) {
+            return bean;
+        }
+
+        MethodInterceptor interceptor = new Interceptor(metrics);
+        if (bean instanceof Advised) {
+            ((Advised) bean).addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+
+    private static final class Interceptor implements MethodInterceptor {
+        private final Map<Method, MethodMetrics> metrics;
+
+        private Interceptor(Map<Method, MethodMetrics> metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            MethodMetrics methodMetrics = metrics.get(invocation.getMethod());
+            if (methodMetrics == null) {
+                return invocation.proceed();
+            }
+            long statements = StorageMetrics.statementCount();
+            long start = System.nanoTime();
+            boolean failed = true;
+            Object result = null;
+            try {
+                result = invocation.proceed();
+                failed = false;
+                return result;
+            } finally {
+                methodMetrics.record(System.nanoTime() - start, rows(result),
+                        StorageMetrics.statementCount() - statements, failed);
+            }
+        }
+
+        private static long rows(Object result) {
+            if (result == null) {
+                return 0;
+            }
+            if (result instanceof Collection) {
+                return ((Collection<?>) result).size();
+            }
+            return 1;
+        }
+    }
+}
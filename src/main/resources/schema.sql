@@ -9,6 +9,7 @@ DROP TABLE if exists film_directors cascade;
 DROP TABLE if exists directors cascade;
 DROP TABLE if exists events cascade;
 DROP TABLE if exists users cascade;
+DROP TABLE if exists film_view cascade;
 DROP TABLE if exists films cascade;
 
 CREATE TABLE IF NOT EXISTS mpa (
@@ -26,7 +27,8 @@ CREATE TABLE IF NOT EXISTS films (
                         description varchar(200),
                         releaseDate date,
                         duration integer,
-                        mpa_id integer references mpa(id)
+                        mpa_id integer references mpa(id),
+                        like_count integer default 0 not null
 );
 
 CREATE TABLE IF NOT EXISTS users (
@@ -86,8 +88,18 @@ CREATE TABLE IF NOT EXISTS likes (
 
 );
 
+CREATE TABLE IF NOT EXISTS film_view (
+                           film_id bigint PRIMARY KEY references films(id) on delete cascade,
+                           document clob not null
+);
+
 CREATE TABLE IF NOT EXISTS friends (
                            user_id bigint references users(id) on delete cascade,
                            friend_id bigint references users(id) on delete cascade,
                            primary key (user_id, friend_id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS events_user_time_idx ON events (user_id, event_time, id);
+CREATE INDEX IF NOT EXISTS films_like_count_idx ON films (like_count DESC, id);
+CREATE INDEX IF NOT EXISTS reviews_film_useful_idx ON reviews (film_id, useful DESC, id);
+CREATE INDEX IF NOT EXISTS reviews_useful_idx ON reviews (useful DESC, id);
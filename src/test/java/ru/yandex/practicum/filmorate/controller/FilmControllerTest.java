@@ -6,21 +6,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.springframework.test.annotation.DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -186,4 +192,113 @@ class FilmControllerTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getFilmByIdShouldReturnUpdatedFilm() throws Exception {
+        mockMvc.perform(post("/films")
+                .content(objectMapper.writeValueAsString(film))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/films/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("RRR"));
+
+        film.setName("WWW");
+        mockMvc.perform(put("/films")
+                .content(objectMapper.writeValueAsString(film))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/films/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("WWW"))
+                .andExpect(jsonPath("$.mpa.name").value("G"));
+    }
+
+    @Test
+    public void getFilmByIdShouldReflectRenamedDirector() throws Exception {
+        mockMvc.perform(post("/directors")
+                .content(objectMapper.writeValueAsString(Director.builder().name("Old").build()))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        film.setDirectors(Set.of(Director.builder().id(1L).build()));
+        mockMvc.perform(post("/films")
+                .content(objectMapper.writeValueAsString(film))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/films/1"))
+                .andExpect(jsonPath("$.directors[0].name").value("Old"));
+
+        mockMvc.perform(put("/directors")
+                .content(objectMapper.writeValueAsString(Director.builder().id(1L).name("New").build()))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/films/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.directors[0].name").value("New"));
+    }
+
+    @Test
+    public void getUnknownFilmShouldGive404() throws Exception {
+        mockMvc.perform(get("/films/1"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().json("{\"error\":\"Фильм c id 1 отсутствует\"}"));
+    }
+
+    @Test
+    public void getFilmByIdWithCurrentETagShouldGive304() throws Exception {
+        mockMvc.perform(post("/films")
+                .content(objectMapper.writeValueAsString(film))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        String eTag = mockMvc.perform(get("/films/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/films/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        film.setName("WWW");
+        mockMvc.perform(put("/films")
+                .content(objectMapper.writeValueAsString(film))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        String newETag = mockMvc.perform(get("/films/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("WWW"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, newETag);
+    }
+
+    @Test
+    public void getPopularFilmsETagShouldChangeAfterLike() throws Exception {
+        mockMvc.perform(post("/films")
+                .content(objectMapper.writeValueAsString(film))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/users")
+                .content(objectMapper.writeValueAsString(User.builder()
+                        .email("user@email.ru")
+                        .login("user")
+                        .name("User")
+                        .birthday(LocalDate.of(1990, 1, 1))
+                        .build()))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        String eTag = mockMvc.perform(get("/films/popular"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/films/1/like/1"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+}
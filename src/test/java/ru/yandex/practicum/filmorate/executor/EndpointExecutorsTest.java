@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
+import ru.yandex.practicum.filmorate.model.ExecutorStats;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+class EndpointExecutorsTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private EndpointExecutors executors;
+
+    @BeforeEach
+    public void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("filmorate.async.default.threads", "1")
+                .withProperty("filmorate.async.default.queue-capacity", "1")
+                .withProperty("filmorate.async.slow.timeout-ms", "50");
+        executors = new EndpointExecutors(environment);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        executors.stop();
+    }
+
+    @Test
+    public void returnsTaskResult() throws Exception {
+        Assertions.assertEquals(42, executors.submit("search", () -> 42).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void passesTaskExceptionThrough() {
+        CompletableFuture<Object> future = executors.submit("search", () -> {
+            throw new EntityNotFoundException("Фильм c id 1 отсутствует");
+        });
+
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof EntityNotFoundException);
+    }
+
+    @Test
+    public void rejectsWhenPoolAndQueueAreFull() {
+        executors.submit("search", this::block);
+        executors.submit("search", this::block);
+
+        Assertions.assertThrows(ServiceUnavailableException.class, () -> executors.submit("search", this::block));
+        ExecutorStats stats = executors.getStats().get(0);
+        Assertions.assertEquals(1, stats.getRejected());
+        Assertions.assertEquals(1, stats.getQueued());
+    }
+
+    @Test
+    public void failsSlowTaskAfterTimeout() {
+        CompletableFuture<Integer> future = executors.submit("slow", this::block);
+
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof ServiceUnavailableException);
+        Assertions.assertEquals(1, executors.getStats().get(0).getTimeouts());
+    }
+
+    @Test
+    public void endpointsDoNotShareLimits() throws Exception {
+        executors.submit("search", this::block);
+        executors.submit("search", this::block);
+
+        Assertions.assertEquals(1, executors.submit("recommendations", () -> 1).get(1, TimeUnit.SECONDS));
+    }
+
+    private Integer block() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+}
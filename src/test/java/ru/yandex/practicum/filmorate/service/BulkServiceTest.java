@@ -0,0 +1,200 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.exception.InvalidRequestException;
+import ru.yandex.practicum.filmorate.model.BulkError;
+import ru.yandex.practicum.filmorate.model.BulkResult;
+import ru.yandex.practicum.filmorate.storage.index.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.index.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.index.KnownIds;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest(properties = "filmorate.bulk.chunk-size=2")
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BulkServiceTest {
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
+    private final BulkService bulkService;
+    private final JdbcTemplate jdbcTemplate;
+    private final FilmLeaderboard filmLeaderboard;
+    private final FriendGraph friendGraph;
+    private final KnownIds knownIds;
+
+    @Test
+    public void loadUsersFromNdjsonAcrossChunks() throws IOException {
+        BulkResult result = bulkService.loadUsers(body(
+                "{\"email\":\"a@mail.ru\",\"login\":\"a\",\"birthday\":\"1990-01-01\"}",
+                "{\"email\":\"b@mail.ru\",\"login\":\"b\",\"name\":\"B\",\"birthday\":\"1990-01-01\"}",
+                "{\"email\":\"c@mail.ru\",\"login\":\"c\",\"birthday\":\"1990-01-01\"}",
+                "",
+                "{\"email\":\"a@mail.ru\",\"login\":\"other\",\"birthday\":\"1990-01-01\"}",
+                "{\"email\":\"d@mail.ru\",\"login\":\"c\",\"birthday\":\"1990-01-01\"}"), NDJSON);
+
+        assertResult(result, 5, 3, 2, 0);
+        Assertions.assertEquals(List.of("a", "B", "c"),
+                jdbcTemplate.queryForList("SELECT name FROM users ORDER BY id", String.class));
+        for (long id = 1; id <= 3; id++) {
+            Assertions.assertTrue(knownIds.mightContainUser(id));
+        }
+    }
+
+    @Test
+    public void loadUsersReportsInvalidRowsWithoutFailingChunk() throws IOException {
+        BulkResult result = bulkService.loadUsers(body(
+                "{\"email\":\"a@mail.ru\",\"login\":\"a\",\"birthday\":\"1990-01-01\"}",
+                "{\"login\":\"b\",\"birthday\":\"1990-01-01\"}",
+                "{\"email\":\" \",\"login\":\"c\",\"birthday\":\"1990-01-01\"}",
+                "{\"email\":\"d@mail.ru\",\"login\":\"d\",\"birthday\":\"1990-01-01\"}",
+                "не json"), NDJSON);
+
+        assertResult(result, 5, 2, 0, 3);
+        Assertions.assertEquals(List.of(2L, 3L, 5L), lines(result));
+        Assertions.assertEquals("Почта не может быть пустой", result.getErrors().get(0).getMessage());
+        Assertions.assertEquals(2, count("users"));
+    }
+
+    @Test
+    public void loadUsersFromCsv() throws IOException {
+        BulkResult result = bulkService.loadUsers(body(
+                "email,login,name,birthday",
+                "a@mail.ru,a,,1990-01-01",
+                "b@mail.ru,b,B,1990-01-01",
+                "b@mail.ru,b,B,1990-01-01",
+                ",c,C,1990-01-01"), CSV);
+
+        assertResult(result, 4, 2, 1, 1);
+        Assertions.assertEquals(List.of(5L), lines(result));
+        Assertions.assertEquals(List.of("a", "B"),
+                jdbcTemplate.queryForList("SELECT name FROM users ORDER BY id", String.class));
+    }
+
+    @Test
+    public void loadFilmsFromNdjsonAndCsv() throws IOException {
+        BulkResult ndjson = bulkService.loadFilms(body(
+                "{\"name\":\"Фильм 1\",\"description\":\"Описание\",\"releaseDate\":\"2000-01-01\",\"duration\":100," +
+                        "\"mpa\":{\"id\":1},\"genres\":[{\"id\":1},{\"id\":2}]}",
+                "{\"name\":\"Фильм 2\",\"description\":\"Описание\",\"releaseDate\":\"2001-01-01\",\"duration\":100," +
+                        "\"mpa\":{\"id\":99}}",
+                "{\"name\":\"Фильм 3\",\"description\":\"Описание\",\"releaseDate\":\"2002-01-01\",\"duration\":100," +
+                        "\"mpa\":{\"id\":2}}"), NDJSON);
+        BulkResult csv = bulkService.loadFilms(body(
+                "name,description,releaseDate,duration,mpa,genres,directors",
+                "Фильм 4,Описание,2003-01-01,100,3,1|3,",
+                "Фильм 5,Описание,2004-01-01,100,1,,99",
+                "Фильм 6,Описание,2005-01-01,100,1,99,",
+                "Фильм 7,Описание,2006-01-01,100,1,,"), CSV);
+
+        assertResult(ndjson, 3, 2, 0, 1);
+        Assertions.assertEquals(List.of(2L), lines(ndjson));
+        assertResult(csv, 4, 2, 0, 2);
+        Assertions.assertEquals(List.of(3L, 4L), lines(csv));
+        Assertions.assertEquals(4, count("films"));
+        Assertions.assertEquals(List.of(1L, 2L, 1L, 3L), jdbcTemplate.queryForList(
+                "SELECT genre_id FROM film_genres ORDER BY film_id, genre_id", Long.class));
+        for (long id = 1; id <= 4; id++) {
+            Assertions.assertTrue(knownIds.mightContainFilm(id));
+            Assertions.assertEquals(0, filmLeaderboard.getLikeCount(id));
+        }
+    }
+
+    @Test
+    public void loadLikesSkipsDuplicatesAndDanglingReferences() throws IOException {
+        createUsersAndFilms();
+
+        BulkResult ndjson = bulkService.loadLikes(body(
+                "{\"filmId\":1,\"userId\":1}",
+                "{\"filmId\":1,\"userId\":2}",
+                "{\"filmId\":1,\"userId\":1}",
+                "{\"filmId\":99,\"userId\":1}",
+                "{\"filmId\":2,\"userId\":99}",
+                "{\"filmId\":2}"), NDJSON);
+        BulkResult csv = bulkService.loadLikes(body(
+                "filmId,userId",
+                "2,1",
+                "1,2",
+                "2,2"), CSV);
+
+        assertResult(ndjson, 6, 2, 3, 1);
+        Assertions.assertEquals(List.of(6L), lines(ndjson));
+        assertResult(csv, 3, 2, 1, 0);
+        Assertions.assertEquals(4, count("likes"));
+        Assertions.assertEquals(List.of(2, 2), jdbcTemplate.queryForList(
+                "SELECT like_count FROM films ORDER BY id", Integer.class));
+        Assertions.assertEquals(2, filmLeaderboard.getLikeCount(1L));
+        Assertions.assertEquals(2, filmLeaderboard.getLikeCount(2L));
+    }
+
+    @Test
+    public void loadFriendsSkipsDuplicatesSelfAndDanglingReferences() throws IOException {
+        createUsersAndFilms();
+
+        BulkResult ndjson = bulkService.loadFriends(body(
+                "{\"userId\":1,\"friendId\":2}",
+                "{\"userId\":1,\"friendId\":2}",
+                "{\"userId\":1,\"friendId\":1}",
+                "{\"userId\":1,\"friendId\":99}"), NDJSON);
+        BulkResult csv = bulkService.loadFriends(body(
+                "userId,friendId",
+                "2,1",
+                "99,1",
+                "2,"), CSV);
+
+        assertResult(ndjson, 4, 1, 3, 0);
+        assertResult(csv, 3, 1, 1, 1);
+        Assertions.assertEquals(List.of(4L), lines(csv));
+        Assertions.assertEquals(2, count("friends"));
+        Assertions.assertArrayEquals(new long[]{2L}, friendGraph.getFriends(1L));
+        Assertions.assertArrayEquals(new long[]{1L}, friendGraph.getFriends(2L));
+    }
+
+    @Test
+    public void loadRejectsUnknownContentType() {
+        Assertions.assertThrows(InvalidRequestException.class,
+                () -> bulkService.loadLikes(body("{\"filmId\":1,\"userId\":1}"), "text/plain"));
+    }
+
+    private void createUsersAndFilms() throws IOException {
+        assertResult(bulkService.loadUsers(body(
+                "email,login,birthday",
+                "a@mail.ru,a,1990-01-01",
+                "b@mail.ru,b,1990-01-01"), CSV), 2, 2, 0, 0);
+        assertResult(bulkService.loadFilms(body(
+                "name,description,releaseDate,duration,mpa",
+                "Фильм 1,Описание,2000-01-01,100,1",
+                "Фильм 2,Описание,2001-01-01,100,1"), CSV), 2, 2, 0, 0);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static void assertResult(BulkResult result, long received, long inserted, long skipped, long failed) {
+        Assertions.assertEquals(received, result.getReceived(), "received");
+        Assertions.assertEquals(inserted, result.getInserted(), "inserted");
+        Assertions.assertEquals(skipped, result.getSkipped(), "skipped");
+        Assertions.assertEquals(failed, result.getFailed(), "failed");
+    }
+
+    private static List<Long> lines(BulkResult result) {
+        return result.getErrors().stream().map(BulkError::getLine).collect(Collectors.toList());
+    }
+
+    private static ByteArrayInputStream body(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
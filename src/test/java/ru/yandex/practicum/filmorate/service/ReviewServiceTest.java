@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.InvalidRequestException;
+import ru.yandex.practicum.filmorate.util.Cursor;
+
+class ReviewServiceTest {
+    private final ReviewService reviewService = new ReviewService(null);
+
+    @Test
+    public void cursorWithUsefulOutsideIntRangeIsRejected() {
+        String tooLarge = Cursor.encode(Integer.MAX_VALUE + 1L, 1L);
+        String tooSmall = Cursor.encode(Integer.MIN_VALUE - 1L, 1L);
+
+        InvalidRequestException exception = Assertions.assertThrows(InvalidRequestException.class,
+                () -> reviewService.getReviewsPage(null, tooLarge, 10));
+        Assertions.assertEquals("Некорректный курсор " + tooLarge, exception.getMessage());
+        Assertions.assertThrows(InvalidRequestException.class,
+                () -> reviewService.getReviewsPage(null, tooSmall, 10));
+    }
+}
@@ -0,0 +1,140 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.exception.InvalidRequestException;
+import ru.yandex.practicum.filmorate.model.CursorPage;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.util.Cursor;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class UserServiceFeedTest {
+    private static final long T1 = 1_600_000_000_000L;
+    private static final long T2 = T1 + 1000;
+    private static final long T3 = T1 + 2000;
+    private static final long T4 = T1 + 3000;
+
+    private final UserService userService;
+    private final UserStorage userStorage;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 1; i <= 2; i++) {
+            userStorage.create(User.builder()
+                    .email("user" + i + "@email.ru")
+                    .login("user" + i)
+                    .name("User " + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build());
+        }
+        // Events 2, 3 and 4 share a timestamp, so pages have to break ties by id.
+        addEvent(1L, T1);
+        addEvent(2L, T2);
+        addEvent(1L, T2);
+        addEvent(1L, T2);
+        addEvent(1L, T2);
+        addEvent(1L, T3);
+        addEvent(1L, T4);
+    }
+
+    @Test
+    public void pagesForwardWithSince() {
+        CursorPage<Event> page = userService.getFeedPage(1L, null, null, 2);
+        Assertions.assertEquals(ids.subList(0, 2), eventIds(page));
+
+        page = userService.getFeedPage(1L, page.getNextCursor(), null, 2);
+        Assertions.assertEquals(ids.subList(2, 4), eventIds(page));
+
+        page = userService.getFeedPage(1L, page.getNextCursor(), null, 2);
+        Assertions.assertEquals(ids.subList(4, 6), eventIds(page));
+
+        page = userService.getFeedPage(1L, page.getNextCursor(), null, 2);
+        Assertions.assertEquals(List.of(), eventIds(page));
+        Assertions.assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void pagesBackwardWithBeforeOnly() {
+        CursorPage<Event> page = userService.getFeedPage(1L, null, cursor(5), 2);
+        Assertions.assertEquals(ids.subList(3, 5), eventIds(page));
+        Assertions.assertEquals(cursor(3), page.getNextCursor());
+
+        page = userService.getFeedPage(1L, null, page.getNextCursor(), 2);
+        Assertions.assertEquals(ids.subList(1, 3), eventIds(page));
+        Assertions.assertEquals(cursor(1), page.getNextCursor());
+
+        page = userService.getFeedPage(1L, null, page.getNextCursor(), 2);
+        Assertions.assertEquals(ids.subList(0, 1), eventIds(page));
+        Assertions.assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void sinceAndBeforeSelectWindow() {
+        CursorPage<Event> page = userService.getFeedPage(1L, cursor(0), cursor(5), 10);
+        Assertions.assertEquals(ids.subList(1, 5), eventIds(page));
+        Assertions.assertNull(page.getNextCursor());
+
+        page = userService.getFeedPage(1L, cursor(0), cursor(5), 3);
+        Assertions.assertEquals(ids.subList(1, 4), eventIds(page));
+        Assertions.assertEquals(cursor(3), page.getNextCursor());
+
+        page = userService.getFeedPage(1L, page.getNextCursor(), cursor(5), 3);
+        Assertions.assertEquals(ids.subList(4, 5), eventIds(page));
+    }
+
+    @Test
+    public void tiesOnEventTimeAreSplitById() {
+        CursorPage<Event> page = userService.getFeedPage(1L, cursor(2), null, 10);
+        Assertions.assertEquals(ids.subList(3, 6), eventIds(page));
+
+        page = userService.getFeedPage(1L, null, cursor(2), 10);
+        Assertions.assertEquals(ids.subList(0, 2), eventIds(page));
+    }
+
+    @Test
+    public void malformedCursorIsRejected() {
+        Assertions.assertThrows(InvalidRequestException.class,
+                () -> userService.getFeedPage(1L, "курсор", null, 2));
+        Assertions.assertThrows(InvalidRequestException.class,
+                () -> userService.getFeedPage(1L, null, Cursor.encode(T1), 2));
+    }
+
+    private void addEvent(Long userId, long time) {
+        jdbcTemplate.update("INSERT INTO events (user_id, entity_id, event_type, operation, event_time) " +
+                "VALUES (?, 1, 'LIKE', 'ADD', ?)", userId, new Timestamp(time));
+        if (userId == 1L) {
+            ids.add(jdbcTemplate.queryForObject("SELECT MAX(id) FROM events", Long.class));
+        }
+    }
+
+    private String cursor(int index) {
+        Long id = ids.get(index);
+        Timestamp time = jdbcTemplate.queryForObject("SELECT event_time FROM events WHERE id = ?", Timestamp.class, id);
+        return Cursor.encode(time.getTime(), id);
+    }
+
+    private static List<Long> eventIds(CursorPage<Event> page) {
+        return page.getItems().stream().map(Event::getEventId).collect(Collectors.toList());
+    }
+}
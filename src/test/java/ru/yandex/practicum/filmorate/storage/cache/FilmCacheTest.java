@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+class FilmCacheTest {
+    private FilmCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new FilmCache(10);
+    }
+
+    @Test
+    public void changingReturnedFilmDoesNotChangeCachedFilm() {
+        cache.put(film(), cache.stamp());
+
+        Film cached = cache.get(1L);
+        cached.setName("Изменен");
+        cached.getGenres().clear();
+
+        Assertions.assertEquals(film(), cache.get(1L));
+    }
+
+    @Test
+    public void changingPutFilmDoesNotChangeCachedFilm() {
+        Film film = film();
+        cache.put(film, cache.stamp());
+
+        film.setName("Изменен");
+        film.getGenres().add(Genre.builder().id(2L).name("Драма").build());
+
+        Assertions.assertEquals(film(), cache.get(1L));
+    }
+
+    @Test
+    public void putIsIgnoredAfterInvalidation() {
+        long stamp = cache.stamp();
+        cache.invalidate(1L);
+
+        cache.put(film(), stamp);
+
+        Assertions.assertNull(cache.get(1L));
+    }
+
+    private static Film film() {
+        return Film.builder()
+                .id(1L)
+                .name("Фильм")
+                .description("Описание")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(Mpa.builder().id(1L).name("G").build())
+                .genres(new LinkedHashSet<>(Set.of(Genre.builder().id(1L).name("Комедия").build())))
+                .directors(new LinkedHashSet<>())
+                .build();
+    }
+}
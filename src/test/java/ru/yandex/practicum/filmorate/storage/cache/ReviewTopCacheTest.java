@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Review;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+class ReviewTopCacheTest {
+    private ReviewTopCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new ReviewTopCache(2, 100);
+    }
+
+    @Test
+    public void completeListAbsorbsNewReviews() {
+        cache.put(1L, List.of(review(1L, 5)), cache.stamp());
+
+        cache.putReview(review(2L, 7));
+
+        Assertions.assertEquals(List.of(2L, 1L), ids(cache.get(1L)));
+    }
+
+    @Test
+    public void fullListKeepsOnlyTopReviews() {
+        cache.put(1L, List.of(review(1L, 5), review(2L, 3)), cache.stamp());
+
+        cache.putReview(review(3L, 4));
+        cache.putReview(review(4L, 1));
+
+        Assertions.assertEquals(List.of(1L, 3L), ids(cache.get(1L)));
+    }
+
+    @Test
+    public void fullListIsDroppedWhenReviewFallsPastItsEnd() {
+        cache.put(1L, List.of(review(1L, 5), review(2L, 3)), cache.stamp());
+
+        cache.putReview(review(1L, 2));
+
+        Assertions.assertNull(cache.get(1L));
+    }
+
+    @Test
+    public void putIsIgnoredAfterConcurrentWrite() {
+        long stamp = cache.stamp();
+        cache.putReview(review(1L, 5));
+
+        cache.put(1L, List.of(), stamp);
+
+        Assertions.assertNull(cache.get(1L));
+    }
+
+    @Test
+    public void refreshAppliesRowReadWithoutConcurrentWrite() {
+        cache.put(1L, List.of(review(1L, 1), review(2L, 0)), cache.stamp());
+
+        cache.refreshReview(review(2L, 2), cache.stamp());
+
+        Assertions.assertEquals(List.of(2L, 1L), ids(cache.get(1L)));
+    }
+
+    @Test
+    public void refreshDropsListsWhenRowMayBeStale() {
+        cache.put(1L, List.of(review(1L, 1), review(2L, 0)), cache.stamp());
+        cache.put(null, List.of(review(1L, 1), review(2L, 0)), cache.stamp());
+
+        // The first vote read its row, then the second vote was published before it.
+        long firstStamp = cache.stamp();
+        cache.refreshReview(review(2L, 2), cache.stamp());
+        cache.refreshReview(review(2L, 1), firstStamp);
+
+        Assertions.assertNull(cache.get(1L));
+        Assertions.assertNull(cache.get(null));
+    }
+
+    private static List<Long> ids(List<Review> reviews) {
+        return reviews.stream().map(Review::getReviewId).collect(Collectors.toList());
+    }
+
+    private static Review review(Long id, int useful) {
+        return Review.builder()
+                .reviewId(id)
+                .filmId(1L)
+                .userId(1L)
+                .content("Отзыв " + id)
+                .isPositive(true)
+                .useful(useful)
+                .build();
+    }
+}
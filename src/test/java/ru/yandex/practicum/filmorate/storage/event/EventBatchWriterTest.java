@@ -0,0 +1,165 @@
+package ru.yandex.practicum.filmorate.storage.event;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.EventType;
+import ru.yandex.practicum.filmorate.model.Operation;
+import ru.yandex.practicum.filmorate.storage.EventStorage;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@SpringBootTest(properties = "filmorate.events.flush-interval-ms=60000")
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class EventBatchWriterTest {
+    private static final long WAIT_MILLIS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EventStorage eventStorage;
+
+    private EventBatchWriter writer;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 1; i <= 2; i++) {
+            jdbcTemplate.update("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, '1990-01-01')",
+                    "user" + i + "@email.ru", "user" + i, "User " + i);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    public void syncModeInsertsOnCallerAndPropagatesErrors() {
+        writer = start("sync", 10, 60000);
+
+        writer.submit(event(1L, 1L));
+
+        Assertions.assertEquals(List.of(1L), entityIds(1L));
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> writer.submit(event(99L, 2L)));
+        Assertions.assertEquals(0, writer.getQueueSize());
+    }
+
+    @Test
+    public void intervalModeFlushesOnItsOwn() throws InterruptedException {
+        writer = start("interval", 100, 20);
+
+        writer.submit(event(1L, 1L));
+        writer.submit(event(1L, 2L));
+
+        awaitEvents(1L, 2);
+        Assertions.assertEquals(List.of(1L, 2L), entityIds(1L));
+    }
+
+    @Test
+    public void sizeModeFlushesWhenBatchIsFull() throws InterruptedException {
+        writer = start("size", 3, 60000);
+
+        writer.submit(event(1L, 1L));
+        writer.submit(event(1L, 2L));
+        Thread.sleep(200);
+        Assertions.assertEquals(2, writer.getQueueSize());
+        Assertions.assertEquals(List.of(), entityIds(1L));
+
+        writer.submit(event(1L, 3L));
+
+        awaitEvents(1L, 3);
+        Assertions.assertEquals(List.of(1L, 2L, 3L), entityIds(1L));
+    }
+
+    @Test
+    public void feedIncludesEventsQueuedBeforeRead() {
+        eventStorage.addEvent(1L, 1L, EventType.LIKE, Operation.ADD);
+        eventStorage.addEvent(1L, 2L, EventType.LIKE, Operation.ADD);
+
+        List<Event> feed = eventStorage.getFeedByUserId(1L);
+
+        Assertions.assertEquals(List.of(1L, 2L), feed.stream().map(Event::getEntityId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void badEventDoesNotDropItsBatchNeighbours() {
+        writer = start("interval", 100, 60000);
+
+        writer.submit(event(1L, 1L));
+        writer.submit(event(99L, 2L));
+        writer.submit(event(2L, 3L));
+        writer.submit(event(1L, 4L));
+        writer.flush();
+
+        Assertions.assertEquals(0, writer.getQueueSize());
+        Assertions.assertEquals(List.of(1L, 4L), entityIds(1L));
+        Assertions.assertEquals(List.of(3L), entityIds(2L));
+        Assertions.assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM events", Integer.class));
+    }
+
+    @Test
+    public void idsKeepSubmitOrderOfEveryUser() throws InterruptedException {
+        writer = start("size", 7, 5);
+        int count = 500;
+
+        Thread other = new Thread(() -> submitAll(2L, count));
+        other.start();
+        submitAll(1L, count);
+        other.join();
+        writer.flush();
+
+        List<Long> expected = LongStream.rangeClosed(1, count).boxed().collect(Collectors.toList());
+        Assertions.assertEquals(expected, entityIds(1L));
+        Assertions.assertEquals(expected, entityIds(2L));
+    }
+
+    private EventBatchWriter start(String mode, int batchSize, long flushIntervalMillis) {
+        EventBatchWriter batchWriter = new EventBatchWriter(jdbcTemplate, transactionTemplate, mode, 1000,
+                batchSize, flushIntervalMillis);
+        batchWriter.start();
+        return batchWriter;
+    }
+
+    private void submitAll(Long userId, int count) {
+        for (long entityId = 1; entityId <= count; entityId++) {
+            writer.submit(event(userId, entityId));
+        }
+    }
+
+    private void awaitEvents(Long userId, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (entityIds(userId).size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private List<Long> entityIds(Long userId) {
+        return jdbcTemplate.queryForList("SELECT entity_id FROM events WHERE user_id = ? ORDER BY id", Long.class, userId);
+    }
+
+    private static Event event(Long userId, Long entityId) {
+        return Event.builder()
+                .userId(userId)
+                .entityId(entityId)
+                .eventType(EventType.LIKE)
+                .operation(Operation.ADD)
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+}
@@ -9,12 +9,16 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.yandex.practicum.filmorate.exception.EntityAlreadyExistException;
 import ru.yandex.practicum.filmorate.exception.EntityNotFoundException;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.EventType;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.Operation;
 import ru.yandex.practicum.filmorate.model.User;
-import ru.yandex.practicum.filmorate.storage.impl.FilmDbStorage;
-import ru.yandex.practicum.filmorate.storage.impl.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.EventStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -28,8 +32,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class FilmStorageTest {
-    private final UserDbStorage userStorage;
-    private final FilmDbStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FilmStorage filmStorage;
+    private final EventStorage eventStorage;
 
     User user = User.builder()
             .id(1L)
@@ -136,6 +141,16 @@ class FilmStorageTest {
         Assertions.assertEquals(List.of(film, film1), getFilms);
     }
 
+    @Test
+    public void findPageIds() {
+        filmStorage.create(film);
+        filmStorage.create(film1);
+
+        Assertions.assertEquals(List.of(1L), filmStorage.findPageIds(0L, 1));
+        Assertions.assertEquals(List.of(2L), filmStorage.findPageIds(1L, 10));
+        Assertions.assertEquals(List.of(), filmStorage.findPageIds(2L, 10));
+    }
+
     @Test
     public void getFilmById() {
         filmStorage.create(film);
@@ -188,6 +203,25 @@ class FilmStorageTest {
         Assertions.assertEquals("Этот пользователь не ставил лайк", entityAlreadyExistException.getMessage());
     }
 
+    @Test
+    public void addLikeTwiceStoresOneLike() {
+        filmStorage.create(film);
+        userStorage.create(user);
+        filmStorage.addLike(1L, 1L);
+        filmStorage.addLike(1L, 1L);
+
+        List<Event> feed = eventStorage.getFeedByUserId(1L);
+        Assertions.assertEquals(1, feed.size());
+        Assertions.assertEquals(EventType.LIKE, feed.get(0).getEventType());
+        Assertions.assertEquals(Operation.ADD, feed.get(0).getOperation());
+
+        filmStorage.removeLike(1L, 1L);
+
+        EntityAlreadyExistException entityAlreadyExistException = Assertions.assertThrows(
+                EntityAlreadyExistException.class, () -> filmStorage.removeLike(1L, 1L));
+        Assertions.assertEquals("Этот пользователь не ставил лайк", entityAlreadyExistException.getMessage());
+    }
+
     @Test
     public void getPopularFilm() {
         filmStorage.create(film);
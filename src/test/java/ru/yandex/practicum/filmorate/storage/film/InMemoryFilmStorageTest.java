@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.storage.EventStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+@TestPropertySource(properties = "filmorate.storage=memory")
+class InMemoryFilmStorageTest extends FilmStorageTest {
+    @Autowired
+    InMemoryFilmStorageTest(UserStorage userStorage, FilmStorage filmStorage, EventStorage eventStorage) {
+        super(userStorage, filmStorage, eventStorage);
+    }
+}
@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.impl.LikeCountRepairJob;
+import ru.yandex.practicum.filmorate.storage.index.FilmLeaderboard;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class LikeCountRepairJobTest {
+    private final UserStorage userStorage;
+    private final FilmStorage filmStorage;
+    private final LikeCountRepairJob likeCountRepairJob;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityVersions entityVersions;
+    private final FilmLeaderboard filmLeaderboard;
+
+    @Test
+    public void likesKeepCounterInSync() {
+        createFilms();
+        filmStorage.addLike(1L, 1L);
+        filmStorage.addLike(1L, 1L);
+        filmStorage.addLike(2L, 1L);
+        filmStorage.removeLike(2L, 1L);
+
+        Assertions.assertEquals(1, likeCount(1L));
+        Assertions.assertEquals(0, likeCount(2L));
+    }
+
+    @Test
+    public void repairFixesDriftedCounters() {
+        createFilms();
+        filmStorage.addLike(1L, 1L);
+        jdbcTemplate.update("UPDATE films SET like_count = 0 WHERE id = 1");
+        jdbcTemplate.update("UPDATE films SET like_count = 7 WHERE id = 2");
+        String popularTag = entityVersions.popularTag();
+
+        likeCountRepairJob.repair();
+
+        Assertions.assertEquals(1, likeCount(1L));
+        Assertions.assertEquals(0, likeCount(2L));
+        Assertions.assertEquals(List.of(1L, 2L), ids(filmStorage.getPopularFilms(2, null, null)));
+        Assertions.assertNotEquals(popularTag, entityVersions.popularTag());
+    }
+
+    @Test
+    public void repairWithoutDriftKeepsPopularTag() {
+        createFilms();
+        filmStorage.addLike(1L, 1L);
+        String popularTag = entityVersions.popularTag();
+
+        likeCountRepairJob.repair();
+
+        Assertions.assertEquals(popularTag, entityVersions.popularTag());
+    }
+
+    @Test
+    public void repairBetweenLikeCommitAndLeaderboardUpdateDoesNotCountLikeTwice() {
+        createFilms();
+        jdbcTemplate.update("UPDATE films SET like_count = 3 WHERE id = 2");
+        // A like committed its row and counter, but has not applied its delta to the leaderboard yet.
+        jdbcTemplate.update("INSERT INTO likes (film_id, user_id) VALUES (1, 1)");
+        jdbcTemplate.update("UPDATE films SET like_count = like_count + 1 WHERE id = 1");
+
+        likeCountRepairJob.repair();
+        filmLeaderboard.addLike(1L);
+
+        Assertions.assertEquals(1, likeCount(1L));
+        Assertions.assertEquals(0, likeCount(2L));
+        Assertions.assertEquals(1, filmLeaderboard.getLikeCount(1L));
+        Assertions.assertEquals(0, filmLeaderboard.getLikeCount(2L));
+    }
+
+    private void createFilms() {
+        userStorage.create(User.builder()
+                .email("user@email.ru")
+                .login("user")
+                .name("User")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+        for (int i = 1; i <= 2; i++) {
+            filmStorage.create(Film.builder()
+                    .name("Фильм " + i)
+                    .description("Описание")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(100)
+                    .mpa(Mpa.builder().id(1L).build())
+                    .genres(Set.of())
+                    .directors(Set.of())
+                    .build());
+        }
+    }
+
+    private int likeCount(Long filmId) {
+        return jdbcTemplate.queryForObject("SELECT like_count FROM films WHERE id = ?", Integer.class, filmId);
+    }
+
+    private static List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class FilmLeaderboardTest {
+    private FilmLeaderboard leaderboard;
+
+    @BeforeEach
+    public void setUp() {
+        leaderboard = new FilmLeaderboard(null);
+        leaderboard.putFilm(film(1L, 2000, 1L));
+        leaderboard.putFilm(film(2L, 2000, 2L));
+        leaderboard.putFilm(film(3L, 2010, 1L, 2L));
+    }
+
+    @Test
+    public void getTopOrdersByLikesThenId() {
+        leaderboard.addLike(2L);
+        leaderboard.addLike(3L);
+        leaderboard.addLike(3L);
+
+        Assertions.assertEquals(List.of(3L, 2L, 1L), leaderboard.getTop(10, null, null));
+        Assertions.assertEquals(List.of(3L, 2L), leaderboard.getTop(2, null, null));
+    }
+
+    @Test
+    public void getTopFiltersByGenreAndYear() {
+        leaderboard.addLike(1L);
+
+        Assertions.assertEquals(List.of(1L, 3L), leaderboard.getTop(10, 1L, null));
+        Assertions.assertEquals(List.of(1L, 2L), leaderboard.getTop(10, null, 2000));
+        Assertions.assertEquals(List.of(3L), leaderboard.getTop(10, 2L, 2010));
+        Assertions.assertEquals(List.of(), leaderboard.getTop(10, 3L, null));
+    }
+
+    @Test
+    public void getTopWithOutOfRangeGenreOrYearIsEmpty() {
+        Assertions.assertEquals(List.of(), leaderboard.getTop(10, null, 0));
+        Assertions.assertEquals(List.of(), leaderboard.getTop(10, 0L, null));
+        Assertions.assertEquals(List.of(), leaderboard.getTop(10, null, -1));
+        Assertions.assertEquals(List.of(), leaderboard.getTop(10, 1L, -2000));
+        Assertions.assertEquals(List.of(), leaderboard.getTop(10, -1L, 2000));
+    }
+
+    @Test
+    public void putFilmKeepsLikesAndMovesBuckets() {
+        leaderboard.addLike(1L);
+        leaderboard.putFilm(film(1L, 2010, 2L));
+
+        Assertions.assertEquals(1, leaderboard.getLikeCount(1L));
+        Assertions.assertEquals(List.of(3L), leaderboard.getTop(10, 1L, null));
+        Assertions.assertEquals(List.of(1L, 3L), leaderboard.getTop(10, 2L, 2010));
+    }
+
+    @Test
+    public void removeLikeAndFilm() {
+        leaderboard.addLike(1L);
+        leaderboard.removeLike(1L);
+        leaderboard.removeFilm(2L);
+
+        Assertions.assertEquals(0, leaderboard.getLikeCount(1L));
+        Assertions.assertEquals(List.of(1L, 3L), leaderboard.getTop(10, null, null));
+    }
+
+    private Film film(Long id, int year, Long... genreIds) {
+        Set<Genre> genres = new HashSet<>();
+        for (Long genreId : genreIds) {
+            genres.add(Genre.builder().id(genreId).build());
+        }
+        return Film.builder()
+                .id(id)
+                .name("film" + id)
+                .releaseDate(LocalDate.of(year, 1, 1))
+                .duration(100)
+                .genres(genres)
+                .build();
+    }
+}
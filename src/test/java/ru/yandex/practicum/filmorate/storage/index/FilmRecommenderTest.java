@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+class FilmRecommenderTest {
+    private FilmRecommender recommender;
+
+    @BeforeEach
+    public void setUp() {
+        recommender = new FilmRecommender(null);
+        like(1L, 1L, 2L);
+        like(2L, 1L, 2L, 3L);
+        like(3L, 1L, 4L, 5L);
+    }
+
+    @Test
+    public void recommendRanksFilmsBySimilarityOfNeighbours() {
+        // User 2 shares 2 of 3 films with user 1, user 3 shares 1 of 4.
+        Assertions.assertEquals(List.of(3L, 4L, 5L), recommender.recommend(1L));
+        Assertions.assertEquals(List.of(), recommender.recommend(6L));
+    }
+
+    @Test
+    public void recommendSkipsFilmsAlreadyLiked() {
+        like(1L, 3L);
+
+        Assertions.assertEquals(List.of(4L, 5L), recommender.recommend(1L));
+    }
+
+    @Test
+    public void addAndRemoveLikeUpdateBothDirections() {
+        Assertions.assertFalse(recommender.addLike(1L, 3L));
+        Assertions.assertTrue(recommender.removeLike(1L, 3L));
+        Assertions.assertFalse(recommender.removeLike(1L, 3L));
+
+        Assertions.assertFalse(recommender.hasLike(1L, 3L));
+        Assertions.assertArrayEquals(new long[]{4L, 5L}, recommender.getLikedFilms(3L));
+        // User 3 is no longer reached through the likers of film 1.
+        Assertions.assertEquals(List.of(3L), recommender.recommend(1L));
+    }
+
+    @Test
+    public void removeFilmDropsItsLikes() {
+        recommender.removeFilm(3L);
+
+        Assertions.assertArrayEquals(new long[]{1L, 2L}, recommender.getLikedFilms(2L));
+        Assertions.assertEquals(List.of(4L, 5L), recommender.recommend(1L));
+    }
+
+    @Test
+    public void recommendScansAtMostMaxFanoutLikersPerFilm() {
+        ReflectionTestUtils.setField(recommender, "maxFanout", 2);
+
+        // Only users 1 and 2 are scanned among the likers of film 1.
+        Assertions.assertEquals(List.of(3L), recommender.recommend(1L));
+    }
+
+    @Test
+    public void recommendConsidersAtMostMaxCandidatesNeighbours() {
+        ReflectionTestUtils.setField(recommender, "maxCandidates", 1);
+
+        Assertions.assertEquals(List.of(3L), recommender.recommend(1L));
+        Assertions.assertEquals(List.of(2L), recommender.recommend(3L));
+    }
+
+    private void like(Long userId, Long... filmIds) {
+        for (Long filmId : filmIds) {
+            Assertions.assertTrue(recommender.addLike(filmId, userId));
+        }
+    }
+}
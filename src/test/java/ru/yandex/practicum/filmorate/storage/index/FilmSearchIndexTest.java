@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Set;
+
+class FilmSearchIndexTest {
+    private final Director nolan = Director.builder().id(1L).name("Кристофер Нолан").build();
+    private final Director zemeckis = Director.builder().id(2L).name("Роберт Земекис").build();
+
+    private FilmSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new FilmSearchIndex(null);
+        index.putDirector(nolan);
+        index.putDirector(zemeckis);
+        index.putFilm(film(1L, "Оппенгеймер", nolan));
+        index.putFilm(film(2L, "Форрест Гамп", zemeckis));
+        index.putFilm(film(3L, "Интерстеллар", nolan));
+    }
+
+    @Test
+    public void searchByTitleIsCaseInsensitiveSubstring() {
+        Assertions.assertEquals(Set.of(1L), index.search("ГЕЙМ", true, false));
+        Assertions.assertEquals(Set.of(2L), index.search("ст г", true, false));
+        Assertions.assertEquals(Set.of(), index.search("гейм", false, true));
+    }
+
+    @Test
+    public void searchShortQueryScansNames() {
+        Assertions.assertEquals(Set.of(1L, 3L), index.search("ер", true, false));
+    }
+
+    @Test
+    public void searchByDirectorAndTitle() {
+        Assertions.assertEquals(Set.of(1L, 3L), index.search("нолан", false, true));
+        Assertions.assertEquals(Set.of(1L, 2L, 3L), index.search("ер", true, true));
+    }
+
+    @Test
+    public void updatesAreReflected() {
+        index.putFilm(film(1L, "Помни", zemeckis));
+        index.putDirector(Director.builder().id(1L).name("Нолан-младший").build());
+        index.removeFilm(2L);
+
+        Assertions.assertEquals(Set.of(), index.search("оппенг", true, false));
+        Assertions.assertEquals(Set.of(1L), index.search("земекис", false, true));
+        Assertions.assertEquals(Set.of(3L), index.search("младший", false, true));
+
+        index.removeDirector(1L);
+        Assertions.assertEquals(Set.of(), index.search("нолан", false, true));
+    }
+
+    @Test
+    public void idsAboveIntRangeAreIndexed() {
+        long bigId = Integer.MAX_VALUE + 10L;
+        Director director = Director.builder().id(bigId + 1).name("Дени Вильнёв").build();
+        index.putDirector(director);
+        index.putFilm(film(bigId, "Дюна", director));
+
+        Assertions.assertEquals(Set.of(bigId), index.search("дюн", true, false));
+        Assertions.assertEquals(Set.of(bigId), index.search("вильн", false, true));
+
+        index.removeFilm(bigId);
+        index.removeDirector(bigId + 1);
+        Assertions.assertEquals(Set.of(), index.search("дюн", true, false));
+        Assertions.assertEquals(Set.of(), index.search("вильн", false, true));
+    }
+
+    private Film film(Long id, String name, Director director) {
+        return Film.builder()
+                .id(id)
+                .name(name)
+                .directors(Set.of(director))
+                .build();
+    }
+}
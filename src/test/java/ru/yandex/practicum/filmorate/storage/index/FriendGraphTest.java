@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+class FriendGraphTest {
+    private FriendGraph graph;
+
+    @BeforeEach
+    public void setUp() {
+        graph = new FriendGraph(null);
+        graph.addFriend(1L, 3L);
+        graph.addFriend(1L, 2L);
+        graph.addFriend(1L, 5L);
+        graph.addFriend(4L, 5L);
+        graph.addFriend(4L, 3L);
+    }
+
+    @Test
+    public void getFriendsReturnsSortedIds() {
+        Assertions.assertArrayEquals(new long[]{2L, 3L, 5L}, graph.getFriends(1L));
+        Assertions.assertTrue(graph.isFriend(1L, 2L));
+        Assertions.assertFalse(graph.isFriend(2L, 1L));
+    }
+
+    @Test
+    public void getCommonFriendsIntersectsFriendLists() {
+        Assertions.assertArrayEquals(new long[]{3L, 5L}, graph.getCommonFriends(1L, 4L));
+        Assertions.assertArrayEquals(new long[0], graph.getCommonFriends(1L, 2L));
+    }
+
+    @Test
+    public void suggestRanksByMutualFriendsThenId() {
+        graph.addFriend(2L, 4L);
+        graph.addFriend(2L, 6L);
+        graph.addFriend(3L, 4L);
+        graph.addFriend(3L, 7L);
+        graph.addFriend(5L, 6L);
+
+        Assertions.assertEquals(List.of(4L, 6L, 7L), graph.suggest(1L, 10));
+        Assertions.assertEquals(List.of(4L), graph.suggest(1L, 1));
+    }
+
+    @Test
+    public void parallelSuggestMatchesSequential() {
+        for (long friendId = 10; friendId < 40; friendId++) {
+            graph.addFriend(1L, friendId);
+            graph.addFriend(friendId, 100 + friendId % 3);
+            graph.addFriend(friendId, 200 + friendId);
+        }
+        List<Long> sequential = graph.suggest(1L, 5);
+
+        ReflectionTestUtils.setField(graph, "parallelThreshold", 1);
+        ReflectionTestUtils.setField(graph, "parallelism", 4);
+        try {
+            Assertions.assertEquals(sequential, graph.suggest(1L, 5));
+        } finally {
+            graph.stop();
+        }
+        Assertions.assertEquals(List.of(100L, 101L, 102L), sequential.subList(0, 3));
+    }
+
+    @Test
+    public void removeUserDropsBothDirections() {
+        graph.removeUser(3L);
+        graph.removeFriend(4L, 5L);
+
+        Assertions.assertArrayEquals(new long[]{2L, 5L}, graph.getFriends(1L));
+        Assertions.assertArrayEquals(new long[0], graph.getFriends(4L));
+    }
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IdBitmapTest {
+    private IdBitmap bitmap;
+
+    @BeforeEach
+    public void setUp() {
+        bitmap = new IdBitmap();
+    }
+
+    @Test
+    public void containsOnlyAddedIds() {
+        bitmap.add(1);
+        bitmap.add(64);
+        bitmap.add(65_536);
+
+        Assertions.assertTrue(bitmap.contains(1));
+        Assertions.assertTrue(bitmap.contains(64));
+        Assertions.assertTrue(bitmap.contains(65_536));
+        Assertions.assertFalse(bitmap.contains(0));
+        Assertions.assertFalse(bitmap.contains(2));
+        Assertions.assertFalse(bitmap.contains(65_537));
+        Assertions.assertFalse(bitmap.contains(-1));
+    }
+
+    @Test
+    public void removeClearsOnlyThatId() {
+        bitmap.add(10);
+        bitmap.add(11);
+
+        bitmap.remove(10);
+        bitmap.remove(1_000_000);
+
+        Assertions.assertFalse(bitmap.contains(10));
+        Assertions.assertTrue(bitmap.contains(11));
+    }
+
+    @Test
+    public void supportsIdsBeyondIntRange() {
+        long id = Integer.MAX_VALUE + 10L;
+        bitmap.add(id);
+
+        Assertions.assertTrue(bitmap.contains(id));
+        Assertions.assertFalse(bitmap.contains(id - Integer.MAX_VALUE));
+    }
+}
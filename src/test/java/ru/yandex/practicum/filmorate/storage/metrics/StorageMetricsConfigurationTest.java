@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.storage.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest(properties = {
+        "spring.jdbc.template.fetch-size=50",
+        "spring.jdbc.template.max-rows=1000",
+        "spring.jdbc.template.query-timeout=7s"
+})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class StorageMetricsConfigurationTest {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void countingTemplateKeepsJdbcTemplateProperties() {
+        Assertions.assertTrue(jdbcTemplate instanceof CountingJdbcTemplate);
+        Assertions.assertEquals(50, jdbcTemplate.getFetchSize());
+        Assertions.assertEquals(1000, jdbcTemplate.getMaxRows());
+        Assertions.assertEquals(7, jdbcTemplate.getQueryTimeout());
+    }
+}
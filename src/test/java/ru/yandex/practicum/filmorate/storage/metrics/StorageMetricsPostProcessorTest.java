@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.storage.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+
+@SpringBootTest(properties = "filmorate.metrics.storage.enabled=false")
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class StorageMetricsPostProcessorTest {
+    private final GenreStorage genreStorage;
+    private final StorageMetrics storageMetrics;
+
+    @Test
+    public void disabledMetricsLeaveStoragesUnwrapped() {
+        genreStorage.findAll();
+
+        Assertions.assertFalse(AopUtils.isAopProxy(genreStorage));
+        Assertions.assertTrue(storageMetrics.getStats().isEmpty());
+    }
+}
@@ -0,0 +1,155 @@
+package ru.yandex.practicum.filmorate.storage.review;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.exception.EntityAlreadyExistException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.Review;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.ReviewStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ReviewStorageTest {
+    private static final int USERS = 12;
+
+    private final ReviewStorage reviewStorage;
+    private final UserStorage userStorage;
+    private final FilmStorage filmStorage;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Long reviewId;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 1; i <= USERS; i++) {
+            userStorage.create(User.builder()
+                    .email("user" + i + "@email.ru")
+                    .login("user" + i)
+                    .name("User " + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build());
+        }
+        Film film = filmStorage.create(Film.builder()
+                .name("Фильм")
+                .description("Описание")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(Mpa.builder().id(1L).build())
+                .genres(Set.of())
+                .directors(Set.of())
+                .build());
+        reviewId = reviewStorage.create(Review.builder()
+                .content("Отзыв")
+                .isPositive(true)
+                .userId(1L)
+                .filmId(film.getId())
+                .build()).getReviewId();
+    }
+
+    @Test
+    public void likeAndDislikeChangeUseful() {
+        reviewStorage.addLike(reviewId, 1L);
+        assertUseful(1);
+
+        reviewStorage.addDislike(reviewId, 2L);
+        assertUseful(0);
+
+        reviewStorage.removeLike(reviewId, 1L);
+        assertUseful(-1);
+
+        reviewStorage.removeDislike(reviewId, 2L);
+        assertUseful(0);
+        Assertions.assertEquals(0, votes());
+    }
+
+    @Test
+    public void switchingVoteChangesUsefulByTwo() {
+        reviewStorage.addLike(reviewId, 1L);
+
+        reviewStorage.addDislike(reviewId, 1L);
+        assertUseful(-1);
+
+        reviewStorage.addLike(reviewId, 1L);
+        assertUseful(1);
+        Assertions.assertEquals(1, votes());
+    }
+
+    @Test
+    public void repeatedVoteIsRejected() {
+        reviewStorage.addLike(reviewId, 1L);
+        reviewStorage.addDislike(reviewId, 2L);
+
+        Assertions.assertThrows(EntityAlreadyExistException.class, () -> reviewStorage.addLike(reviewId, 1L));
+        Assertions.assertThrows(EntityAlreadyExistException.class, () -> reviewStorage.addDislike(reviewId, 2L));
+        assertUseful(0);
+    }
+
+    @Test
+    public void removingWrongKindOfVoteIsRejected() {
+        reviewStorage.addLike(reviewId, 1L);
+
+        Assertions.assertThrows(EntityAlreadyExistException.class, () -> reviewStorage.removeDislike(reviewId, 1L));
+        Assertions.assertThrows(EntityAlreadyExistException.class, () -> reviewStorage.removeLike(reviewId, 2L));
+        assertUseful(1);
+        Assertions.assertEquals(1, votes());
+    }
+
+    @Test
+    public void parallelVotesKeepUsefulConsistent() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (long userId = 1; userId <= USERS; userId++) {
+                long voter = userId;
+                futures.add(executor.submit(() -> {
+                    reviewStorage.addLike(reviewId, voter);
+                    if (voter % 4 == 0) {
+                        reviewStorage.addDislike(reviewId, voter);
+                    } else if (voter % 4 == 1) {
+                        reviewStorage.removeLike(reviewId, voter);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // 6 likes, 3 likes switched to dislikes, 3 likes removed.
+        assertUseful(3);
+        Assertions.assertEquals(3, reviewStorage.getReviewsByFilmId(null, 1).get(0).getUseful());
+        Assertions.assertEquals(9, votes());
+    }
+
+    private void assertUseful(int useful) {
+        Assertions.assertEquals(useful, reviewStorage.getById(reviewId).getUseful());
+    }
+
+    private int votes() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM review_likes WHERE review_id = ?",
+                Integer.class, reviewId);
+    }
+}
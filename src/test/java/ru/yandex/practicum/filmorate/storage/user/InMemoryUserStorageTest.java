@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.exception.InvalidRequestException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.LocalDate;
+
+@TestPropertySource(properties = "filmorate.storage=memory")
+class InMemoryUserStorageTest extends UserStorageTest {
+    private final UserStorage userStorage;
+
+    @Autowired
+    InMemoryUserStorageTest(UserStorage userStorage) {
+        super(userStorage);
+        this.userStorage = userStorage;
+    }
+
+    @Test
+    public void createWithoutEmail() {
+        User user = User.builder()
+                .login("user")
+                .name("User")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+
+        InvalidRequestException invalidRequestException = Assertions.assertThrows(
+                InvalidRequestException.class, () -> userStorage.create(user));
+        Assertions.assertEquals("Почта не может быть пустой", invalidRequestException.getMessage());
+    }
+}
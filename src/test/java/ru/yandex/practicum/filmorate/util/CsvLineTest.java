@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class CsvLineTest {
+    @Test
+    public void parseSplitsPlainFields() {
+        Assertions.assertEquals(List.of("1", "2", ""), CsvLine.parse("1, 2,"));
+    }
+
+    @Test
+    public void parseKeepsCommasAndQuotesInsideQuotedFields() {
+        Assertions.assertEquals(List.of("Фильм, часть \"2\"", "1|2"), CsvLine.parse("\"Фильм, часть \"\"2\"\"\",1|2"));
+    }
+
+    @Test
+    public void parseRejectsUnclosedQuote() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CsvLine.parse("\"Фильм,1"));
+    }
+}